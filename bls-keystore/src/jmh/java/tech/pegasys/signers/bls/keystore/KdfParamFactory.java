@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import org.apache.tuweni.bytes.Bytes32;
+
+/** KDF parameters at the cost used by deployed keystores, and at the cost used in tests. */
+class KdfParamFactory {
+  static final String SCRYPT = "scrypt";
+  static final String SCRYPT_TEST = "scrypt-test";
+  static final String PBKDF2 = "pbkdf2";
+  static final String PBKDF2_TEST = "pbkdf2-test";
+
+  private static final int DKLEN = 32;
+  private static final Bytes32 SALT =
+      Bytes32.fromHexString("d4e56740f876aef8c010b86a40d5f56745a118d0906a34e69aec8c0db1cb8fa3");
+
+  static KdfParam create(final String name) {
+    switch (name) {
+      case SCRYPT:
+        return new SCryptParam(DKLEN, 262_144, 1, 8, SALT);
+      case SCRYPT_TEST:
+        return new SCryptParam(DKLEN, 1024, 1, 8, SALT);
+      case PBKDF2:
+        return new Pbkdf2Param(DKLEN, 262_144, Pbkdf2PseudoRandomFunction.HMAC_SHA256, SALT);
+      case PBKDF2_TEST:
+        return new Pbkdf2Param(DKLEN, 1024, Pbkdf2PseudoRandomFunction.HMAC_SHA256, SALT);
+      default:
+        throw new IllegalArgumentException("Unknown KDF parameters: " + name);
+    }
+  }
+}
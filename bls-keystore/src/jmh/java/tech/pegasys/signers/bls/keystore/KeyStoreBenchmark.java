@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class KeyStoreBenchmark {
+  private static final String PASSWORD = "testpassword";
+  private static final Bytes BLS_PRIVATE_KEY =
+      Bytes.fromHexString("0x000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f");
+  private static final Bytes BLS_PUB_KEY =
+      Bytes.fromHexString(
+          "9612d7a727c9d0a22e185a1c768478dfe919cada9266988cb32359c11f2b7b27f4ae4040902382ae2910c15e2b420d07");
+  private static final Cipher CIPHER =
+      new Cipher(Bytes.fromHexString("264daa3f303d7259501c93d997d84fe6"));
+
+  @Param({
+    KdfParamFactory.SCRYPT,
+    KdfParamFactory.SCRYPT_TEST,
+    KdfParamFactory.PBKDF2,
+    KdfParamFactory.PBKDF2_TEST
+  })
+  public String kdf;
+
+  private KdfParam kdfParam;
+  private KeyStoreData keyStoreData;
+
+  @Setup
+  public void setup() {
+    kdfParam = KdfParamFactory.create(kdf);
+    keyStoreData = KeyStore.encrypt(BLS_PRIVATE_KEY, BLS_PUB_KEY, PASSWORD, "", kdfParam, CIPHER);
+  }
+
+  @Benchmark
+  public KeyStoreData encrypt() {
+    return KeyStore.encrypt(BLS_PRIVATE_KEY, BLS_PUB_KEY, PASSWORD, "", kdfParam, CIPHER);
+  }
+
+  @Benchmark
+  public Bytes decrypt() {
+    return KeyStore.decrypt(PASSWORD, keyStoreData);
+  }
+
+  @Benchmark
+  public boolean validatePassword() {
+    return KeyStore.validatePassword(PASSWORD, keyStoreData);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KeyStoreLoaderBenchmark {
+
+  @Param({KdfParamFactory.SCRYPT_TEST, KdfParamFactory.PBKDF2_TEST})
+  public String kdf;
+
+  private String keyStoreJson;
+  private Path keyStoreFile;
+
+  @Setup
+  public void setup() throws IOException {
+    final KeyStoreData keyStoreData =
+        KeyStore.encrypt(
+            Bytes.fromHexString(
+                "0x000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f"),
+            Bytes.fromHexString(
+                "9612d7a727c9d0a22e185a1c768478dfe919cada9266988cb32359c11f2b7b27f4ae4040902382ae2910c15e2b420d07"),
+            "testpassword",
+            "m/12381/3600/0/0/0",
+            KdfParamFactory.create(kdf),
+            new Cipher(Bytes.fromHexString("264daa3f303d7259501c93d997d84fe6")));
+    keyStoreFile = Files.createTempFile("keystore", ".json");
+    KeyStoreLoader.saveToFile(keyStoreFile, keyStoreData);
+    keyStoreJson = Files.readString(keyStoreFile);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(keyStoreFile);
+  }
+
+  @Benchmark
+  public KeyStoreData loadFromString() {
+    return KeyStoreLoader.loadFromString(keyStoreJson);
+  }
+
+  @Benchmark
+  public KeyStoreData loadFromFile() {
+    return KeyStoreLoader.loadFromFile(keyStoreFile);
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Contains the successfully decrypted keystores and the keystores which failed to decrypt. */
+public class BulkDecryptionResults {
+  private final List<DecryptionResult> results;
+
+  public BulkDecryptionResults(final List<DecryptionResult> results) {
+    this.results = results;
+  }
+
+  public List<DecryptionResult> getValues() {
+    return results.stream().filter(DecryptionResult::isSuccess).collect(Collectors.toList());
+  }
+
+  public List<DecryptionResult> getErrors() {
+    return results.stream().filter(result -> !result.isSuccess()).collect(Collectors.toList());
+  }
+
+  public int getErrorCount() {
+    return (int) results.stream().filter(result -> !result.isSuccess()).count();
+  }
+}
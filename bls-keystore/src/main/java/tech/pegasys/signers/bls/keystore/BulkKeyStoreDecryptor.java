@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Loads and decrypts many EIP-2335 keystores concurrently on a bounded pool of threads.
+ *
+ * <p>Each decryption runs a full key derivation, which for scrypt with the default parameters
+ * (n=2^18, r=8) allocates 256MB. By default one thread is used per processor and scrypt
+ * derivations are admitted by a {@link ScryptMemoryScheduler} limited to half of the maximum heap,
+ * so cheaper derivations run at full parallelism without expensive ones exhausting the heap.
+ */
+public class BulkKeyStoreDecryptor implements Closeable {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ExecutorService executorService;
+  private final int parallelism;
+  private final DecryptionKeyGenerator decryptionKeyGenerator;
+
+  public BulkKeyStoreDecryptor() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public BulkKeyStoreDecryptor(final int parallelism) {
+    this(parallelism, ScryptMemoryScheduler.withDefaultBudget(Runtime.getRuntime()));
+  }
+
+  /**
+   * Creates a decryptor using the given generator to derive decryption keys, for example a
+   * {@link ScryptMemoryScheduler} with a specific memory budget or a {@link DerivedKeyCache}.
+   *
+   * @param parallelism The number of keystores to decrypt concurrently
+   * @param decryptionKeyGenerator Generates the decryption key for each keystore
+   */
+  public BulkKeyStoreDecryptor(
+      final int parallelism, final DecryptionKeyGenerator decryptionKeyGenerator) {
+    checkArgument(parallelism > 0, "parallelism must be > 0");
+    checkNotNull(decryptionKeyGenerator, "DecryptionKeyGenerator cannot be null");
+    this.parallelism = parallelism;
+    this.decryptionKeyGenerator = decryptionKeyGenerator;
+    this.executorService =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setNameFormat("keystore-decryption-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Decrypts all keystores, returning once every keystore has been processed.
+   *
+   * @param keyStoreFiles The EIP-2335 keystore files to decrypt
+   * @param passwordProvider Provides the password for each keystore file
+   * @return The decrypted keys and the keystores which could not be decrypted
+   * @throws InterruptedException If interrupted while waiting for decryption to complete
+   */
+  public BulkDecryptionResults decrypt(
+      final Collection<Path> keyStoreFiles, final Function<Path, String> passwordProvider)
+      throws InterruptedException {
+    final List<DecryptionResult> results = new ArrayList<>(keyStoreFiles.size());
+    decrypt(keyStoreFiles, passwordProvider, results::add);
+    return new BulkDecryptionResults(results);
+  }
+
+  /**
+   * Decrypts all keystores, passing each result to the consumer on the calling thread as soon as
+   * it is available.
+   *
+   * @param keyStoreFiles The EIP-2335 keystore files to decrypt
+   * @param passwordProvider Provides the password for each keystore file
+   * @param resultConsumer Receives the result of each keystore in order of completion
+   * @throws InterruptedException If interrupted while waiting for decryption to complete
+   */
+  public void decrypt(
+      final Collection<Path> keyStoreFiles,
+      final Function<Path, String> passwordProvider,
+      final Consumer<DecryptionResult> resultConsumer)
+      throws InterruptedException {
+    checkNotNull(keyStoreFiles, "KeyStore files cannot be null");
+    checkNotNull(passwordProvider, "Password provider cannot be null");
+    checkNotNull(resultConsumer, "Result consumer cannot be null");
+
+    final CompletionService<DecryptionResult> completionService =
+        new ExecutorCompletionService<>(executorService);
+    final List<Future<DecryptionResult>> futures = new ArrayList<>(keyStoreFiles.size());
+    for (final Path keyStoreFile : keyStoreFiles) {
+      final DecryptionTask task =
+          new DecryptionTask(keyStoreFile, passwordProvider, decryptionKeyGenerator);
+      futures.add(completionService.submit(task));
+    }
+
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        resultConsumer.accept(completionService.take().get());
+      }
+    } catch (final ExecutionException e) {
+      // DecryptionTask reports all failures as results, so this is unexpected
+      throw new IllegalStateException("Unexpected error decrypting keystores", e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  private static class DecryptionTask implements Callable<DecryptionResult> {
+    private final Path keyStoreFile;
+    private final Function<Path, String> passwordProvider;
+    private final DecryptionKeyGenerator decryptionKeyGenerator;
+
+    private DecryptionTask(
+        final Path keyStoreFile,
+        final Function<Path, String> passwordProvider,
+        final DecryptionKeyGenerator decryptionKeyGenerator) {
+      this.keyStoreFile = keyStoreFile;
+      this.passwordProvider = passwordProvider;
+      this.decryptionKeyGenerator = decryptionKeyGenerator;
+    }
+
+    @Override
+    public DecryptionResult call() {
+      try {
+        final KeyStoreData keyStoreData = KeyStoreLoader.loadFromFile(keyStoreFile);
+        final String password = passwordProvider.apply(keyStoreFile);
+        final Bytes privateKey = KeyStore.decrypt(password, keyStoreData, decryptionKeyGenerator);
+        return DecryptionResult.success(keyStoreFile, keyStoreData, privateKey);
+      } catch (final RuntimeException e) {
+        LOG.debug("Failed to decrypt keystore {}", keyStoreFile, e);
+        return DecryptionResult.failure(keyStoreFile, String.valueOf(e.getMessage()));
+      }
+    }
+  }
+}
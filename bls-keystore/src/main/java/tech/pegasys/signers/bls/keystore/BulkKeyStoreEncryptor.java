@@ -0,0 +1,236 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Encrypts many BLS keys into EIP-2335 keystores with the same password and writes them out
+ * concurrently.
+ *
+ * <p>When the keystores may share KDF parameters, including the salt, the key is derived once and
+ * only the cipher iv differs between keystores. Otherwise each keystore gets its own KDF
+ * parameters and the derivations run in parallel, admitted through the configured {@link
+ * DecryptionKeyGenerator}, which by default is a {@link ScryptMemoryScheduler} limited to half of
+ * the maximum heap.
+ */
+public class BulkKeyStoreEncryptor implements Closeable {
+  private static final int IV_SIZE = 16;
+
+  private final ExecutorService executorService;
+  private final DecryptionKeyGenerator decryptionKeyGenerator;
+
+  public BulkKeyStoreEncryptor() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public BulkKeyStoreEncryptor(final int parallelism) {
+    this(parallelism, ScryptMemoryScheduler.withDefaultBudget(Runtime.getRuntime()));
+  }
+
+  public BulkKeyStoreEncryptor(
+      final int parallelism, final DecryptionKeyGenerator decryptionKeyGenerator) {
+    checkArgument(parallelism > 0, "parallelism must be > 0");
+    checkNotNull(decryptionKeyGenerator, "DecryptionKeyGenerator cannot be null");
+    this.decryptionKeyGenerator = decryptionKeyGenerator;
+    this.executorService =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setNameFormat("keystore-encryption-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Encrypts all keys with a single key derivation. Every keystore has the same KDF parameters
+   * and salt, and a unique random iv.
+   *
+   * @param requests The keys to encrypt
+   * @param password The password for all keystores
+   * @param kdfParam The KDF parameters shared by all keystores
+   * @return The keystores in the same order as the requests
+   */
+  public List<KeyStoreData> encryptWithSharedKdf(
+      final Collection<EncryptionRequest> requests,
+      final String password,
+      final KdfParam kdfParam) {
+    checkNotNull(requests, "Requests cannot be null");
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(kdfParam, "KDFParam cannot be null");
+
+    kdfParam.validate();
+    final Bytes decryptionKey = decryptionKeyGenerator.generateDecryptionKey(kdfParam, password);
+    // with the key derived, encryption is a single AES block operation so is not worth forking
+    final List<KeyStoreData> keyStores = new ArrayList<>(requests.size());
+    for (final EncryptionRequest request : requests) {
+      keyStores.add(
+          KeyStore.encryptWithDecryptionKey(
+              request.getPrivateKey(),
+              request.getPublicKey(),
+              decryptionKey,
+              request.getPath(),
+              kdfParam,
+              new Cipher(Bytes.random(IV_SIZE))));
+    }
+    return keyStores;
+  }
+
+  /**
+   * Encrypts all keys concurrently, each with its own KDF parameters and random iv.
+   *
+   * @param requests The keys to encrypt
+   * @param password The password for all keystores
+   * @param kdfParamSupplier Creates the KDF parameters, with a fresh salt, for each keystore
+   * @return The keystores in the same order as the requests
+   * @throws InterruptedException If interrupted while waiting for encryption to complete
+   */
+  public List<KeyStoreData> encrypt(
+      final Collection<EncryptionRequest> requests,
+      final String password,
+      final Supplier<KdfParam> kdfParamSupplier)
+      throws InterruptedException {
+    checkNotNull(requests, "Requests cannot be null");
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(kdfParamSupplier, "KDFParam supplier cannot be null");
+
+    final List<EncryptionTask> tasks = new ArrayList<>(requests.size());
+    for (final EncryptionRequest request : requests) {
+      tasks.add(
+          new EncryptionTask(request, password, kdfParamSupplier.get(), decryptionKeyGenerator));
+    }
+    return getAll(executorService.invokeAll(tasks));
+  }
+
+  /**
+   * Writes the keystores to their files concurrently using {@link KeyStoreLoader#saveToFile}.
+   *
+   * @param keyStores The keystore to write to each file
+   * @throws IOException If any keystore could not be written, with any further failures suppressed
+   * @throws InterruptedException If interrupted while waiting for the files to be written
+   */
+  public void saveToFiles(final Map<Path, KeyStoreData> keyStores)
+      throws IOException, InterruptedException {
+    checkNotNull(keyStores, "KeyStores cannot be null");
+
+    final List<SaveTask> tasks = new ArrayList<>(keyStores.size());
+    keyStores.forEach((file, keyStoreData) -> tasks.add(new SaveTask(file, keyStoreData)));
+
+    IOException failure = null;
+    for (final Future<Void> future : executorService.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (final ExecutionException e) {
+        if (!(e.getCause() instanceof IOException)) {
+          throw new IllegalStateException("Unexpected error saving keystores", e.getCause());
+        }
+        if (failure == null) {
+          failure = (IOException) e.getCause();
+        } else {
+          failure.addSuppressed(e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  private static <T> List<T> getAll(final List<Future<T>> futures) throws InterruptedException {
+    final List<T> results = new ArrayList<>(futures.size());
+    for (final Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException("Unexpected error encrypting keystores", e.getCause());
+      }
+    }
+    return results;
+  }
+
+  private static class EncryptionTask implements Callable<KeyStoreData> {
+    private final EncryptionRequest request;
+    private final String password;
+    private final KdfParam kdfParam;
+    private final DecryptionKeyGenerator decryptionKeyGenerator;
+
+    private EncryptionTask(
+        final EncryptionRequest request,
+        final String password,
+        final KdfParam kdfParam,
+        final DecryptionKeyGenerator decryptionKeyGenerator) {
+      this.request = request;
+      this.password = password;
+      this.kdfParam = kdfParam;
+      this.decryptionKeyGenerator = decryptionKeyGenerator;
+    }
+
+    @Override
+    public KeyStoreData call() {
+      return KeyStore.encrypt(
+          request.getPrivateKey(),
+          request.getPublicKey(),
+          password,
+          request.getPath(),
+          kdfParam,
+          new Cipher(Bytes.random(IV_SIZE)),
+          decryptionKeyGenerator);
+    }
+  }
+
+  private static class SaveTask implements Callable<Void> {
+    private final Path keyStoreFile;
+    private final KeyStoreData keyStoreData;
+
+    private SaveTask(final Path keyStoreFile, final KeyStoreData keyStoreData) {
+      this.keyStoreFile = keyStoreFile;
+      this.keyStoreData = keyStoreData;
+    }
+
+    @Override
+    public Void call() throws IOException {
+      KeyStoreLoader.saveToFile(keyStoreFile, keyStoreData);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import com.google.common.base.MoreObjects;
+import org.apache.tuweni.bytes.Bytes;
+
+/** Outcome of decrypting a single keystore file, either the decrypted key or the error. */
+public class DecryptionResult {
+  private final Path keyStoreFile;
+  private final KeyStoreData keyStoreData;
+  private final Bytes privateKey;
+  private final String errorMessage;
+
+  private DecryptionResult(
+      final Path keyStoreFile,
+      final KeyStoreData keyStoreData,
+      final Bytes privateKey,
+      final String errorMessage) {
+    this.keyStoreFile = keyStoreFile;
+    this.keyStoreData = keyStoreData;
+    this.privateKey = privateKey;
+    this.errorMessage = errorMessage;
+  }
+
+  public static DecryptionResult success(
+      final Path keyStoreFile, final KeyStoreData keyStoreData, final Bytes privateKey) {
+    checkNotNull(privateKey, "privateKey cannot be null");
+    return new DecryptionResult(keyStoreFile, keyStoreData, privateKey, null);
+  }
+
+  public static DecryptionResult failure(final Path keyStoreFile, final String errorMessage) {
+    checkNotNull(errorMessage, "errorMessage cannot be null");
+    return new DecryptionResult(keyStoreFile, null, null, errorMessage);
+  }
+
+  public Path getKeyStoreFile() {
+    return keyStoreFile;
+  }
+
+  public Optional<KeyStoreData> getKeyStoreData() {
+    return Optional.ofNullable(keyStoreData);
+  }
+
+  public Optional<Bytes> getPrivateKey() {
+    return Optional.ofNullable(privateKey);
+  }
+
+  public Optional<String> getErrorMessage() {
+    return Optional.ofNullable(errorMessage);
+  }
+
+  public boolean isSuccess() {
+    return privateKey != null;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("keyStoreFile", keyStoreFile)
+        .add("errorMessage", errorMessage)
+        .toString();
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.crypto.Hash;
+
+/**
+ * Bounded cache of keys generated by {@link KdfParam#generateDecryptionKey(String)}, so keystores
+ * sharing the same KDF parameters, salt and password only run the key derivation once.
+ *
+ * <p>Entries are keyed by a SHA-256 digest of the KDF parameters and normalized password, so the
+ * password itself is not retained. Derived keys are zeroed when they are evicted.
+ */
+public class DerivedKeyCache implements DecryptionKeyGenerator {
+  private final Cache<Bytes32, byte[]> derivedKeys;
+  private final DecryptionKeyGenerator delegate;
+
+  public DerivedKeyCache(final long maximumSize) {
+    this(maximumSize, DecryptionKeyGenerator.DIRECT);
+  }
+
+  /**
+   * Creates a cache which uses the delegate to derive keys that are not already cached, for
+   * example a {@link ScryptMemoryScheduler} to bound the memory used by concurrent derivations.
+   *
+   * @param maximumSize The maximum number of derived keys to retain
+   * @param delegate Generates keys on a cache miss
+   */
+  public DerivedKeyCache(final long maximumSize, final DecryptionKeyGenerator delegate) {
+    checkArgument(maximumSize > 0, "maximumSize must be > 0");
+    checkNotNull(delegate, "delegate cannot be null");
+    this.delegate = delegate;
+    derivedKeys =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .removalListener(DerivedKeyCache::zeroDerivedKey)
+            .build();
+  }
+
+  @Override
+  public Bytes generateDecryptionKey(final KdfParam kdfParam, final String password) {
+    checkNotNull(kdfParam, "KDFParam cannot be null");
+    checkNotNull(password, "Password cannot be null");
+    try {
+      final byte[] derivedKey =
+          derivedKeys.get(
+              cacheKey(kdfParam, password),
+              () -> delegate.generateDecryptionKey(kdfParam, password).toArray());
+      // callers receive a copy, so evicting the entry cannot zero a key which is still in use
+      return Bytes.wrap(derivedKey.clone());
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new KeyStoreValidationException("Failed to generate decryption key", e.getCause());
+    }
+  }
+
+  public long size() {
+    return derivedKeys.size();
+  }
+
+  public void invalidateAll() {
+    derivedKeys.invalidateAll();
+  }
+
+  private static Bytes32 cacheKey(final KdfParam kdfParam, final String password) {
+    return Hash.sha2_256(
+        Bytes.concatenate(
+            Hash.sha2_256(kdfDescription(kdfParam)), PasswordUtils.normalizePassword(password)));
+  }
+
+  private static Bytes kdfDescription(final KdfParam kdfParam) {
+    return Bytes.concatenate(
+        lengthPrefixed(utf8(kdfParam.getKdfFunction().getJsonValue())),
+        Bytes.ofUnsignedInt(kdfParam.getDkLen()),
+        lengthPrefixed(kdfParam.getSalt()),
+        functionParams(kdfParam));
+  }
+
+  private static Bytes functionParams(final KdfParam kdfParam) {
+    if (kdfParam instanceof SCryptParam) {
+      final SCryptParam scryptParam = (SCryptParam) kdfParam;
+      return Bytes.concatenate(
+          Bytes.ofUnsignedInt(scryptParam.getN()),
+          Bytes.ofUnsignedInt(scryptParam.getR()),
+          Bytes.ofUnsignedInt(scryptParam.getP()));
+    }
+    if (kdfParam instanceof Pbkdf2Param) {
+      final Pbkdf2Param pbkdf2Param = (Pbkdf2Param) kdfParam;
+      return Bytes.concatenate(
+          Bytes.ofUnsignedInt(pbkdf2Param.getC()),
+          lengthPrefixed(utf8(pbkdf2Param.getPrf().getJsonValue())));
+    }
+    throw new IllegalArgumentException(
+        "Unsupported KDF function " + kdfParam.getKdfFunction().getJsonValue());
+  }
+
+  private static Bytes lengthPrefixed(final Bytes value) {
+    return Bytes.concatenate(Bytes.ofUnsignedInt(value.size()), value);
+  }
+
+  private static Bytes utf8(final String value) {
+    return Bytes.wrap(value.getBytes(UTF_8));
+  }
+
+  private static void zeroDerivedKey(final RemovalNotification<Bytes32, byte[]> notification) {
+    final byte[] derivedKey = notification.getValue();
+    if (derivedKey != null) {
+      Arrays.fill(derivedKey, (byte) 0);
+    }
+  }
+}
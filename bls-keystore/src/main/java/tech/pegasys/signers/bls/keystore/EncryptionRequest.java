@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import org.apache.tuweni.bytes.Bytes;
+
+/** A BLS12-381 key pair and its EIP-2334 path to be encrypted into a keystore. */
+public class EncryptionRequest {
+  private final Bytes privateKey;
+  private final Bytes publicKey;
+  private final String path;
+
+  public EncryptionRequest(final Bytes privateKey, final Bytes publicKey, final String path) {
+    checkNotNull(privateKey, "PrivateKey cannot be null");
+    checkNotNull(publicKey, "PublicKey cannot be null");
+    checkNotNull(path, "Path cannot be null");
+    this.privateKey = privateKey;
+    this.publicKey = publicKey;
+    this.path = path;
+  }
+
+  public Bytes getPrivateKey() {
+    return privateKey;
+  }
+
+  public Bytes getPublicKey() {
+    return publicKey;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  @Override
+  public String toString() {
+    // the private key is deliberately excluded
+    return MoreObjects.toStringHelper(this)
+        .add("publicKey", publicKey)
+        .add("path", path)
+        .toString();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Lookup table hex encoder and decoder working on character arrays, so that hex can be written to
+ * and read from Jackson's buffers without intermediate Strings. Decoding follows the rules of
+ * {@link Bytes#fromHexString(CharSequence)}: an optional "0x" prefix and an even number of digits.
+ */
+final class HexCodec {
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final byte[] HEX_VALUES = new byte[128];
+
+  static {
+    Arrays.fill(HEX_VALUES, (byte) -1);
+    for (int i = 0; i < 10; i++) {
+      HEX_VALUES['0' + i] = (byte) i;
+    }
+    for (int i = 0; i < 6; i++) {
+      HEX_VALUES['a' + i] = (byte) (10 + i);
+      HEX_VALUES['A' + i] = (byte) (10 + i);
+    }
+  }
+
+  private HexCodec() {}
+
+  /** Encodes the bytes as lowercase hex without a "0x" prefix. */
+  static char[] encode(final Bytes bytes) {
+    final byte[] input = bytes.toArrayUnsafe();
+    final char[] hex = new char[input.length * 2];
+    for (int i = 0; i < input.length; i++) {
+      final int value = input[i] & 0xff;
+      hex[2 * i] = HEX_DIGITS[value >>> 4];
+      hex[2 * i + 1] = HEX_DIGITS[value & 0x0f];
+    }
+    return hex;
+  }
+
+  static byte[] decode(final char[] chars, final int offset, final int length) {
+    return decode(chars, offset, length, -1);
+  }
+
+  /**
+   * Decodes hex into an array of the given size, left padding with zeros.
+   *
+   * @param chars The buffer containing the hex
+   * @param offset The offset of the hex within the buffer
+   * @param length The number of characters of hex
+   * @param size The size of the decoded array, or -1 to use the size of the hex value
+   * @return The decoded bytes
+   * @throws IllegalArgumentException If the hex is invalid or larger than the size
+   */
+  static byte[] decode(final char[] chars, final int offset, final int length, final int size) {
+    int start = offset;
+    int hexLength = length;
+    if (hexLength >= 2 && chars[start] == '0' && chars[start + 1] == 'x') {
+      start += 2;
+      hexLength -= 2;
+    }
+    if ((hexLength & 1) != 0) {
+      throw new IllegalArgumentException("Invalid odd-length hex binary representation");
+    }
+
+    final int valueSize = hexLength / 2;
+    if (size >= 0 && valueSize > size) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Hex value is too large: expected at most %s bytes but got %s", size, valueSize));
+    }
+    final byte[] bytes = new byte[size < 0 ? valueSize : size];
+    final int destOffset = bytes.length - valueSize;
+    for (int i = 0; i < hexLength; i += 2) {
+      final int high = hexValue(chars, start, i);
+      final int low = hexValue(chars, start, i + 1);
+      bytes[destOffset + i / 2] = (byte) ((high << 4) | low);
+    }
+    return bytes;
+  }
+
+  private static int hexValue(final char[] chars, final int start, final int index) {
+    final char c = chars[start + index];
+    final int value = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+    if (value < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Illegal character '%c' found at index %d in hex binary representation", c, index));
+    }
+    return value;
+  }
+}
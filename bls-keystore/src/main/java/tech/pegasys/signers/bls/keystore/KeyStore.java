@@ -15,8 +15,6 @@ package tech.pegasys.signers.bls.keystore;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static javax.crypto.Cipher.DECRYPT_MODE;
 import static javax.crypto.Cipher.ENCRYPT_MODE;
-import static org.apache.tuweni.bytes.Bytes.concatenate;
-import static org.apache.tuweni.crypto.Hash.sha2_256;
 
 import tech.pegasys.signers.bls.keystore.model.Checksum;
 import tech.pegasys.signers.bls.keystore.model.Cipher;
@@ -26,11 +24,13 @@ import tech.pegasys.signers.bls.keystore.model.KdfParam;
 import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
 
 import java.security.GeneralSecurityException;
-import java.util.Objects;
+import java.security.MessageDigest;
+import java.util.Optional;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 /**
@@ -40,6 +40,13 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
  */
 public class KeyStore {
   private static final BouncyCastleProvider BC = new BouncyCastleProvider();
+  private static final int CHECKSUM_LENGTH = 32;
+  // Cipher and digest instances are not thread safe, so each thread reuses its own rather than
+  // looking up the provider and allocating new instances for every keystore
+  private static final ThreadLocal<javax.crypto.Cipher> AES_CTR_CIPHER =
+      ThreadLocal.withInitial(KeyStore::createAesCtrCipher);
+  private static final ThreadLocal<SHA256Digest> SHA256_DIGEST =
+      ThreadLocal.withInitial(SHA256Digest::new);
 
   /**
    * Encrypt the given BLS12-381 key with specified password.
@@ -73,13 +80,74 @@ public class KeyStore {
     kdfParam.validate();
     cipher.validate();
 
-    final Crypto crypto = encryptUsingCipherFunction(blsPrivateKey, password, kdfParam, cipher);
+    final Bytes decryptionKey = kdfParam.generateDecryptionKey(password);
+    final Crypto crypto =
+        encryptUsingCipherFunction(blsPrivateKey, decryptionKey, kdfParam, cipher);
+    return new KeyStoreData(crypto, blsPublicKey, path);
+  }
+
+  /**
+   * Encrypt the given BLS12-381 key with specified password, deriving the key with the given
+   * generator, such as a {@link ScryptMemoryScheduler} to bound the memory used by concurrent
+   * encryptions.
+   *
+   * @param blsPrivateKey BLS12-381 private key in Bytes to encrypt.
+   * @param blsPublicKey BLS12-381 public key in Bytes. It is not validated and stored as it is.
+   * @param password The password to use for encryption
+   * @param path Path as defined in EIP-2334. Can be empty String.
+   * @param kdfParam crypto function and related parameters
+   * @param cipher cipher function and iv parameter to use.
+   * @param decryptionKeyGenerator Generates the key from the KDF parameters
+   * @return The constructed KeyStore with encrypted BLS Private Key
+   */
+  public static KeyStoreData encrypt(
+      final Bytes blsPrivateKey,
+      final Bytes blsPublicKey,
+      final String password,
+      final String path,
+      final KdfParam kdfParam,
+      final Cipher cipher,
+      final DecryptionKeyGenerator decryptionKeyGenerator) {
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(kdfParam, "KDFParam cannot be null");
+    checkNotNull(cipher, "Cipher cannot be null");
+    checkNotNull(decryptionKeyGenerator, "DecryptionKeyGenerator cannot be null");
+
+    // validate before running the expensive key derivation
+    kdfParam.validate();
+    cipher.validate();
+    final Bytes decryptionKey = decryptionKeyGenerator.generateDecryptionKey(kdfParam, password);
+    return encryptWithDecryptionKey(
+        blsPrivateKey, blsPublicKey, decryptionKey, path, kdfParam, cipher);
+  }
+
+  /**
+   * Encrypts using a key already derived from kdfParam, so that keystores sharing the same KDF
+   * parameters and password only need a single derivation. The cipher must use a unique iv.
+   */
+  static KeyStoreData encryptWithDecryptionKey(
+      final Bytes blsPrivateKey,
+      final Bytes blsPublicKey,
+      final Bytes decryptionKey,
+      final String path,
+      final KdfParam kdfParam,
+      final Cipher cipher) {
+    checkNotNull(blsPrivateKey, "PrivateKey cannot be null");
+    checkNotNull(blsPublicKey, "PublicKey cannot be null");
+    checkNotNull(decryptionKey, "Decryption key cannot be null");
+    checkNotNull(path, "Path cannot be null");
+    checkNotNull(kdfParam, "KDFParam cannot be null");
+    checkNotNull(cipher, "Cipher cannot be null");
+
+    cipher.validate();
+
+    final Crypto crypto =
+        encryptUsingCipherFunction(blsPrivateKey, decryptionKey, kdfParam, cipher);
     return new KeyStoreData(crypto, blsPublicKey, path);
   }
 
   private static Crypto encryptUsingCipherFunction(
-      final Bytes secret, final String password, final KdfParam kdfParam, final Cipher cipher) {
-    final Bytes decryptionKey = kdfParam.generateDecryptionKey(password);
+      final Bytes secret, final Bytes decryptionKey, final KdfParam kdfParam, final Cipher cipher) {
     final Bytes cipherMessage =
         applyCipherFunction(decryptionKey, cipher, true, secret.toArrayUnsafe());
     final Bytes checksumMessage = calculateSHA256Checksum(decryptionKey, cipherMessage);
@@ -106,6 +174,29 @@ public class KeyStore {
     return validateChecksum(decryptionKey, keyStoreData);
   }
 
+  /**
+   * Validates password without decrypting the key, deriving the decryption key with the given
+   * generator, such as a {@link DerivedKeyCache} or {@link ScryptMemoryScheduler}.
+   *
+   * @param password The password to validate
+   * @param keyStoreData The Key Store against which password to validate
+   * @param decryptionKeyGenerator Generates the decryption key from the KDF parameters
+   * @return true if password is valid, false otherwise.
+   */
+  public static boolean validatePassword(
+      final String password,
+      final KeyStoreData keyStoreData,
+      final DecryptionKeyGenerator decryptionKeyGenerator) {
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(keyStoreData, "KeyStoreData cannot be null");
+    checkNotNull(decryptionKeyGenerator, "DecryptionKeyGenerator cannot be null");
+
+    final Bytes decryptionKey =
+        decryptionKeyGenerator.generateDecryptionKey(
+            keyStoreData.getCrypto().getKdf().getParam(), password);
+    return validateChecksum(decryptionKey, keyStoreData);
+  }
+
   /**
    * Decrypts BLS private key from the given KeyStore
    *
@@ -119,12 +210,63 @@ public class KeyStore {
 
     final Bytes decryptionKey =
         keyStoreData.getCrypto().getKdf().getParam().generateDecryptionKey(password);
+    return decryptUsingDecryptionKey(decryptionKey, keyStoreData);
+  }
+
+  /**
+   * Decrypts BLS private key from the given KeyStore, deriving the decryption key with the given
+   * generator, such as a {@link DerivedKeyCache} or {@link ScryptMemoryScheduler}.
+   *
+   * @param password The password to use for decryption
+   * @param keyStoreData The given Key Store
+   * @param decryptionKeyGenerator Generates the decryption key from the KDF parameters
+   * @return decrypted BLS private key in Bytes
+   */
+  public static Bytes decrypt(
+      final String password,
+      final KeyStoreData keyStoreData,
+      final DecryptionKeyGenerator decryptionKeyGenerator) {
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(keyStoreData, "KeyStoreData cannot be null");
+    checkNotNull(decryptionKeyGenerator, "DecryptionKeyGenerator cannot be null");
+
+    final Bytes decryptionKey =
+        decryptionKeyGenerator.generateDecryptionKey(
+            keyStoreData.getCrypto().getKdf().getParam(), password);
+    return decryptUsingDecryptionKey(decryptionKey, keyStoreData);
+  }
+
+  /**
+   * Validates the password and decrypts the BLS private key using a single key derivation.
+   *
+   * @param password The password to use for decryption
+   * @param keyStoreData The given Key Store
+   * @return decrypted BLS private key in Bytes, or empty if the password is invalid.
+   */
+  public static Optional<Bytes> tryDecrypt(
+      final String password, final KeyStoreData keyStoreData) {
+    checkNotNull(password, "Password cannot be null");
+    checkNotNull(keyStoreData, "KeyStoreData cannot be null");
+
+    final Bytes decryptionKey =
+        keyStoreData.getCrypto().getKdf().getParam().generateDecryptionKey(password);
+    if (!validateChecksum(decryptionKey, keyStoreData)) {
+      return Optional.empty();
+    }
+    return Optional.of(applyCipherFunction(decryptionKey, keyStoreData));
+  }
 
+  private static Bytes decryptUsingDecryptionKey(
+      final Bytes decryptionKey, final KeyStoreData keyStoreData) {
     if (!validateChecksum(decryptionKey, keyStoreData)) {
       throw new KeyStoreValidationException(
           "Failed to decrypt KeyStore, checksum validation failed.");
     }
+    return applyCipherFunction(decryptionKey, keyStoreData);
+  }
 
+  private static Bytes applyCipherFunction(
+      final Bytes decryptionKey, final KeyStoreData keyStoreData) {
     final Cipher cipher = keyStoreData.getCrypto().getCipher();
     final byte[] encryptedMessage = cipher.getMessage().toArrayUnsafe();
     return applyCipherFunction(decryptionKey, cipher, false, encryptedMessage);
@@ -132,16 +274,30 @@ public class KeyStore {
 
   private static boolean validateChecksum(
       final Bytes decryptionKey, final KeyStoreData keyStoreData) {
-    final Bytes checksum =
-        calculateSHA256Checksum(decryptionKey, keyStoreData.getCrypto().getCipher().getMessage());
-    return Objects.equals(checksum, keyStoreData.getCrypto().getChecksum().getMessage());
+    final byte[] checksum = new byte[CHECKSUM_LENGTH];
+    calculateSHA256Checksum(
+        decryptionKey, keyStoreData.getCrypto().getCipher().getMessage(), checksum);
+    final Bytes expectedChecksum = keyStoreData.getCrypto().getChecksum().getMessage();
+    return expectedChecksum != null
+        && MessageDigest.isEqual(checksum, expectedChecksum.toArrayUnsafe());
   }
 
   private static Bytes calculateSHA256Checksum(
       final Bytes decryptionKey, final Bytes cipherMessage) {
+    final byte[] checksum = new byte[CHECKSUM_LENGTH];
+    calculateSHA256Checksum(decryptionKey, cipherMessage, checksum);
+    return Bytes.wrap(checksum);
+  }
+
+  private static void calculateSHA256Checksum(
+      final Bytes decryptionKey, final Bytes cipherMessage, final byte[] output) {
     // aes-128-ctr needs first 16 bytes for its key. The 2nd 16 bytes are used to create checksum
-    final Bytes dkSliceSecondHalf = decryptionKey.slice(16, 16);
-    return sha2_256(concatenate(dkSliceSecondHalf, cipherMessage));
+    final byte[] decryptionKeyBytes = decryptionKey.toArrayUnsafe();
+    final byte[] cipherMessageBytes = cipherMessage.toArrayUnsafe();
+    final SHA256Digest digest = SHA256_DIGEST.get();
+    digest.update(decryptionKeyBytes, 16, 16);
+    digest.update(cipherMessageBytes, 0, cipherMessageBytes.length);
+    digest.doFinal(output, 0);
   }
 
   private static Bytes applyCipherFunction(
@@ -150,17 +306,25 @@ public class KeyStore {
       boolean encryptMode,
       final byte[] inputMessage) {
     // aes-128-ctr needs first 16 bytes for its key. The 2nd 16 bytes are used to create checksum
-    final SecretKeySpec secretKey =
-        new SecretKeySpec(decryptionKey.slice(0, 16).toArrayUnsafe(), "AES");
+    final SecretKeySpec secretKey = new SecretKeySpec(decryptionKey.toArrayUnsafe(), 0, 16, "AES");
     final IvParameterSpec ivParameterSpec =
         new IvParameterSpec(cipher.getCipherParam().getIv().toArrayUnsafe());
+    final byte[] output = new byte[inputMessage.length];
     try {
-      final javax.crypto.Cipher jceCipher =
-          javax.crypto.Cipher.getInstance("AES/CTR/NoPadding", BC);
+      final javax.crypto.Cipher jceCipher = AES_CTR_CIPHER.get();
       jceCipher.init(encryptMode ? ENCRYPT_MODE : DECRYPT_MODE, secretKey, ivParameterSpec);
-      return Bytes.wrap(jceCipher.doFinal(inputMessage));
+      jceCipher.doFinal(inputMessage, 0, inputMessage.length, output, 0);
+      return Bytes.wrap(output);
     } catch (final GeneralSecurityException e) {
       throw new KeyStoreValidationException("Unexpected error while applying cipher function", e);
     }
   }
+
+  private static javax.crypto.Cipher createAesCtrCipher() {
+    try {
+      return javax.crypto.Cipher.getInstance("AES/CTR/NoPadding", BC);
+    } catch (final GeneralSecurityException e) {
+      throw new KeyStoreValidationException("Unexpected error while creating cipher", e);
+    }
+  }
 }
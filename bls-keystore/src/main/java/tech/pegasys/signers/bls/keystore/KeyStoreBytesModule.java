@@ -17,11 +17,10 @@ import tech.pegasys.signers.bls.keystore.model.CipherFunction;
 import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
 
 import java.io.IOException;
-import java.util.EnumSet;
-import java.util.Objects;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
@@ -48,15 +47,18 @@ class KeyStoreBytesModule extends SimpleModule {
     @Override
     public void serialize(Bytes bytes, JsonGenerator jGen, SerializerProvider serializerProvider)
         throws IOException {
-      // write bytes in hex without 0x
-      jGen.writeString(bytes.appendHexTo(new StringBuilder()).toString());
+      writeHex(bytes, jGen);
     }
   }
 
   private static class BytesDeserializer extends JsonDeserializer<Bytes> {
     @Override
     public Bytes deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-      return Bytes.fromHexString(p.getValueAsString());
+      if (p.currentToken() != JsonToken.VALUE_STRING) {
+        return Bytes.fromHexString(p.getValueAsString());
+      }
+      return Bytes.wrap(
+          HexCodec.decode(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
     }
   }
 
@@ -64,26 +66,34 @@ class KeyStoreBytesModule extends SimpleModule {
     @Override
     public void serialize(Bytes32 bytes, JsonGenerator jGen, SerializerProvider serializerProvider)
         throws IOException {
-      // write bytes in hex without 0x
-      jGen.writeString(bytes.appendHexTo(new StringBuilder()).toString());
+      writeHex(bytes, jGen);
     }
   }
 
   private static class Bytes32Deserializer extends JsonDeserializer<Bytes32> {
     @Override
     public Bytes32 deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-      return Bytes32.fromHexString(p.getValueAsString());
+      if (p.currentToken() != JsonToken.VALUE_STRING) {
+        return Bytes32.fromHexString(p.getValueAsString());
+      }
+      return Bytes32.wrap(
+          HexCodec.decode(
+              p.getTextCharacters(), p.getTextOffset(), p.getTextLength(), Bytes32.SIZE));
     }
   }
 
+  private static void writeHex(final Bytes bytes, final JsonGenerator jGen) throws IOException {
+    // write bytes in hex without 0x
+    final char[] hex = HexCodec.encode(bytes);
+    jGen.writeString(hex, 0, hex.length);
+  }
+
   private static class ChecksumFunctionDeserializer extends JsonDeserializer<ChecksumFunction> {
     @Override
     public ChecksumFunction deserialize(final JsonParser p, final DeserializationContext ctxt)
         throws IOException {
       final String valueAsString = p.getValueAsString();
-      return EnumSet.allOf(ChecksumFunction.class).stream()
-          .filter(function -> Objects.equals(function.getJsonValue(), valueAsString))
-          .findFirst()
+      return ChecksumFunction.fromJsonValue(valueAsString)
           .orElseThrow(
               () ->
                   new KeyStoreValidationException(
@@ -96,9 +106,7 @@ class KeyStoreBytesModule extends SimpleModule {
     public CipherFunction deserialize(final JsonParser p, final DeserializationContext ctxt)
         throws IOException {
       final String valueAsString = p.getValueAsString();
-      return EnumSet.allOf(CipherFunction.class).stream()
-          .filter(function -> Objects.equals(function.getJsonValue(), valueAsString))
-          .findFirst()
+      return CipherFunction.fromJsonValue(valueAsString)
           .orElseThrow(
               () ->
                   new KeyStoreValidationException(
@@ -112,9 +120,7 @@ class KeyStoreBytesModule extends SimpleModule {
     public Pbkdf2PseudoRandomFunction deserialize(
         final JsonParser p, final DeserializationContext ctxt) throws IOException {
       final String valueAsString = p.getValueAsString();
-      return EnumSet.allOf(Pbkdf2PseudoRandomFunction.class).stream()
-          .filter(function -> Objects.equals(function.getJsonValue(), valueAsString))
-          .findFirst()
+      return Pbkdf2PseudoRandomFunction.fromJsonValue(valueAsString)
           .orElseThrow(
               () ->
                   new KeyStoreValidationException(
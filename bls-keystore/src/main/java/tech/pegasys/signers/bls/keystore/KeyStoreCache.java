@@ -0,0 +1,344 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.crypto.Hash;
+
+/**
+ * Append-only binary cache of decoded keystores, so that keystores which have not changed since
+ * the last run are loaded without parsing their JSON.
+ *
+ * <p>Each record holds the absolute path of the source JSON file, its modification time and size,
+ * the SHA-256 hash of its content and the binary encoded {@link KeyStoreData}. By default the
+ * source file is read and hashed on every load, and the cached keystore is only used if the content
+ * hash matches, otherwise the JSON is loaded and a new record appended.
+ *
+ * <p>A cache opened with {@link #open(Path, boolean)} to trust file attributes skips reading the
+ * source file when its modification time and size match the record. This avoids reading every
+ * keystore on a warm start, but serves stale key data for a keystore replaced by one of the same
+ * size with its timestamp preserved, such as a re-encrypted keystore restored with {@code cp -p},
+ * so it should only be enabled where keystores are never replaced that way.
+ *
+ * <p>The whole cache file is read sequentially when it is opened; records which are truncated or
+ * fail their CRC check end the read and are discarded.
+ *
+ * <p>As records are only ever appended, {@link #compact()} can be used to rewrite the file with
+ * only the current record for each keystore.
+ */
+public class KeyStoreCache implements Closeable {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int MAGIC = 0x454b5343; // "EKSC"
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_LENGTH = 8;
+  // record length and CRC32 of the record
+  private static final int RECORD_HEADER_LENGTH = 8;
+  private static final int HASH_LENGTH = 32;
+
+  private final Path cacheFile;
+  private final boolean trustFileAttributes;
+  private final Map<String, CachedKeyStore> entries = new ConcurrentHashMap<>();
+  private FileChannel channel;
+
+  private KeyStoreCache(final Path cacheFile, final boolean trustFileAttributes) {
+    this.cacheFile = cacheFile;
+    this.trustFileAttributes = trustFileAttributes;
+  }
+
+  /**
+   * Opens a cache which validates each cached keystore against the content of its source file.
+   *
+   * @see #open(Path, boolean)
+   */
+  public static KeyStoreCache open(final Path cacheFile) {
+    return open(cacheFile, false);
+  }
+
+  /**
+   * Opens the cache file, creating it if it does not exist, and reads all existing records.
+   *
+   * @param cacheFile The cache file
+   * @param trustFileAttributes Whether a keystore whose modification time and size match its
+   *     record is loaded from the cache without reading the source file
+   * @return The opened cache
+   * @throws UncheckedIOException If the cache file cannot be read or created
+   */
+  public static KeyStoreCache open(final Path cacheFile, final boolean trustFileAttributes) {
+    checkNotNull(cacheFile, "Cache file cannot be null");
+    final KeyStoreCache keyStoreCache = new KeyStoreCache(cacheFile, trustFileAttributes);
+    try {
+      keyStoreCache.readCacheFile();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Unable to open KeyStore cache " + cacheFile, e);
+    }
+    return keyStoreCache;
+  }
+
+  /**
+   * Loads the keystore, using the cached copy if the file has not changed since it was cached and
+   * otherwise loading the JSON and caching the result.
+   *
+   * @param keyStoreFile The EIP-2335 keystore file
+   * @return The validated keystore
+   * @throws KeyStoreValidationException If the keystore cannot be loaded or is not valid
+   */
+  public KeyStoreData loadFromFile(final Path keyStoreFile) {
+    checkNotNull(keyStoreFile, "KeyStore path cannot be null");
+    final String key = keyStoreFile.toAbsolutePath().normalize().toString();
+    // the attributes are read first so that a concurrent change results in a stale record
+    final BasicFileAttributes attributes = readAttributes(keyStoreFile);
+    final CachedKeyStore cached = entries.get(key);
+    final boolean attributesMatch =
+        cached != null && attributes != null && cached.matches(attributes);
+    if (trustFileAttributes && attributesMatch) {
+      cached.keyStoreData.validate();
+      return cached.keyStoreData;
+    }
+
+    final byte[] content = KeyStoreLoader.readKeyStoreFile(keyStoreFile);
+    final byte[] contentHash = Hash.sha2_256(content);
+    final KeyStoreData keyStoreData;
+    if (cached != null && Arrays.equals(cached.contentHash, contentHash)) {
+      cached.keyStoreData.validate();
+      if (attributesMatch) {
+        return cached.keyStoreData;
+      }
+      // records the new attributes, so a cache trusting them can skip the file next time
+      keyStoreData = cached.keyStoreData;
+    } else {
+      keyStoreData = KeyStoreLoader.loadFromBytes(content);
+    }
+
+    final CachedKeyStore entry =
+        new CachedKeyStore(
+            key,
+            attributes == null ? -1 : modifiedTime(attributes),
+            attributes == null ? -1 : attributes.size(),
+            contentHash,
+            keyStoreData);
+    entries.put(key, entry);
+    append(entry);
+    return keyStoreData;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /** Rewrites the cache file so it only contains the current record for each keystore. */
+  public synchronized void compact() throws IOException {
+    final Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+    try (final FileChannel tempChannel =
+        FileChannel.open(
+            tempFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      writeFully(tempChannel, header());
+      for (final CachedKeyStore entry : entries.values()) {
+        writeFully(tempChannel, encodeRecord(entry));
+      }
+      tempChannel.force(true);
+    }
+    closeChannel();
+    Files.move(
+        tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    openChannel();
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      closeChannel();
+    } catch (final IOException e) {
+      LOG.warn("Failed to close KeyStore cache {}", cacheFile, e);
+    }
+  }
+
+  private synchronized void append(final CachedKeyStore entry) {
+    try {
+      writeFully(channel, encodeRecord(entry));
+    } catch (final IOException | RuntimeException e) {
+      // the keystore is still returned, it will be loaded from JSON again on the next run
+      LOG.warn("Failed to append {} to KeyStore cache {}", entry.key, cacheFile, e);
+    }
+  }
+
+  private void readCacheFile() throws IOException {
+    final byte[] contents;
+    try {
+      contents = Files.readAllBytes(cacheFile);
+    } catch (final NoSuchFileException e) {
+      createCacheFile();
+      return;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(contents);
+    if (buffer.remaining() < HEADER_LENGTH
+        || buffer.getInt() != MAGIC
+        || buffer.getInt() != FORMAT_VERSION) {
+      LOG.warn("Discarding KeyStore cache {} with unrecognised format", cacheFile);
+      createCacheFile();
+      return;
+    }
+
+    int validLength = HEADER_LENGTH;
+    while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+      final int recordLength = buffer.getInt();
+      final int crc = buffer.getInt();
+      if (recordLength < 0 || recordLength > buffer.remaining()) {
+        break;
+      }
+      final byte[] record = new byte[recordLength];
+      buffer.get(record);
+      if (crc32(record) != crc) {
+        break;
+      }
+      validLength = buffer.position();
+      decodeRecord(record);
+    }
+
+    openChannel();
+    if (validLength < contents.length) {
+      LOG.warn("Truncating incomplete record at end of KeyStore cache {}", cacheFile);
+      channel.truncate(validLength);
+    }
+  }
+
+  private void decodeRecord(final byte[] record) {
+    try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      final String key = in.readUTF();
+      final long modifiedTime = in.readLong();
+      final long size = in.readLong();
+      final byte[] contentHash = new byte[HASH_LENGTH];
+      in.readFully(contentHash);
+      final KeyStoreData keyStoreData = KeyStoreDataCodec.read(in);
+      // later records replace earlier ones for the same keystore
+      entries.put(key, new CachedKeyStore(key, modifiedTime, size, contentHash, keyStoreData));
+    } catch (final IOException | RuntimeException e) {
+      LOG.debug("Ignoring unreadable record in KeyStore cache {}", cacheFile, e);
+    }
+  }
+
+  private static ByteBuffer encodeRecord(final CachedKeyStore entry) throws IOException {
+    final ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+    try (final DataOutputStream out = new DataOutputStream(record)) {
+      out.writeUTF(entry.key);
+      out.writeLong(entry.modifiedTime);
+      out.writeLong(entry.size);
+      out.write(entry.contentHash);
+      KeyStoreDataCodec.write(entry.keyStoreData, out);
+    }
+    final byte[] recordBytes = record.toByteArray();
+    final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_LENGTH + recordBytes.length);
+    buffer.putInt(recordBytes.length).putInt(crc32(recordBytes)).put(recordBytes).flip();
+    return buffer;
+  }
+
+  private void createCacheFile() throws IOException {
+    Files.write(cacheFile, header().array());
+    openChannel();
+  }
+
+  private void openChannel() throws IOException {
+    channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private void closeChannel() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  private static ByteBuffer header() {
+    return ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+  }
+
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static int crc32(final byte[] bytes) {
+    final CRC32 crc32 = new CRC32();
+    crc32.update(bytes);
+    return (int) crc32.getValue();
+  }
+
+  private static BasicFileAttributes readAttributes(final Path keyStoreFile) {
+    try {
+      return Files.readAttributes(keyStoreFile, BasicFileAttributes.class);
+    } catch (final IOException e) {
+      // reading the file reports the error
+      return null;
+    }
+  }
+
+  private static long modifiedTime(final BasicFileAttributes attributes) {
+    return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+  }
+
+  private static class CachedKeyStore {
+    private final String key;
+    private final long modifiedTime;
+    private final long size;
+    private final byte[] contentHash;
+    private final KeyStoreData keyStoreData;
+
+    private CachedKeyStore(
+        final String key,
+        final long modifiedTime,
+        final long size,
+        final byte[] contentHash,
+        final KeyStoreData keyStoreData) {
+      this.key = key;
+      this.modifiedTime = modifiedTime;
+      this.size = size;
+      this.contentHash = contentHash;
+      this.keyStoreData = keyStoreData;
+    }
+
+    private boolean matches(final BasicFileAttributes attributes) {
+      return modifiedTime == modifiedTime(attributes) && size == attributes.size();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.Checksum;
+import tech.pegasys.signers.bls.keystore.model.ChecksumFunction;
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.CipherFunction;
+import tech.pegasys.signers.bls.keystore.model.CipherParam;
+import tech.pegasys.signers.bls.keystore.model.Crypto;
+import tech.pegasys.signers.bls.keystore.model.EmptyParam;
+import tech.pegasys.signers.bls.keystore.model.Kdf;
+import tech.pegasys.signers.bls.keystore.model.KdfFunction;
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Binary encoding of {@link KeyStoreData}. Functions are written as their EIP-2335 names rather
+ * than enum ordinals, so records remain readable if enum constants are added or reordered.
+ */
+final class KeyStoreDataCodec {
+  private KeyStoreDataCodec() {}
+
+  static void write(final KeyStoreData keyStoreData, final DataOutput out) throws IOException {
+    out.writeInt(keyStoreData.getVersion());
+    writeBytes(keyStoreData.getPubkey(), out);
+    writeOptionalString(keyStoreData.getPath(), out);
+    final UUID uuid = keyStoreData.getUuid();
+    out.writeBoolean(uuid != null);
+    if (uuid != null) {
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    final Kdf kdf = keyStoreData.getCrypto().getKdf();
+    final KdfParam kdfParam = kdf.getParam();
+    out.writeUTF(kdfParam.getKdfFunction().getJsonValue());
+    out.writeInt(kdfParam.getDkLen());
+    writeBytes(kdfParam.getSalt(), out);
+    if (kdfParam instanceof SCryptParam) {
+      final SCryptParam scryptParam = (SCryptParam) kdfParam;
+      out.writeInt(scryptParam.getN());
+      out.writeInt(scryptParam.getP());
+      out.writeInt(scryptParam.getR());
+    } else {
+      final Pbkdf2Param pbkdf2Param = (Pbkdf2Param) kdfParam;
+      out.writeInt(pbkdf2Param.getC());
+      out.writeUTF(pbkdf2Param.getPrf().getJsonValue());
+    }
+    out.writeUTF(kdf.getMessage());
+
+    final Checksum checksum = keyStoreData.getCrypto().getChecksum();
+    out.writeUTF(checksum.getChecksumFunction().getJsonValue());
+    writeBytes(checksum.getMessage(), out);
+
+    final Cipher cipher = keyStoreData.getCrypto().getCipher();
+    out.writeUTF(cipher.getCipherFunction().getJsonValue());
+    writeBytes(cipher.getCipherParam().getIv(), out);
+    writeBytes(cipher.getMessage(), out);
+  }
+
+  static KeyStoreData read(final DataInput in) throws IOException {
+    final int version = in.readInt();
+    final Bytes pubkey = readBytes(in);
+    final String path = readOptionalString(in);
+    final UUID uuid = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+
+    final KdfFunction kdfFunction =
+        KdfFunction.fromJsonValue(in.readUTF()).orElseThrow(KeyStoreDataCodec::unknownFunction);
+    final int dklen = in.readInt();
+    final Bytes salt = readBytes(in);
+    final KdfParam kdfParam;
+    if (kdfFunction == KdfFunction.SCRYPT) {
+      kdfParam = new SCryptParam(dklen, in.readInt(), in.readInt(), in.readInt(), salt);
+    } else {
+      final int c = in.readInt();
+      final Pbkdf2PseudoRandomFunction prf =
+          Pbkdf2PseudoRandomFunction.fromJsonValue(in.readUTF())
+              .orElseThrow(KeyStoreDataCodec::unknownFunction);
+      kdfParam = new Pbkdf2Param(dklen, c, prf, salt);
+    }
+    final Kdf kdf = new Kdf(kdfFunction, kdfParam, in.readUTF());
+
+    final ChecksumFunction checksumFunction =
+        ChecksumFunction.fromJsonValue(in.readUTF())
+            .orElseThrow(KeyStoreDataCodec::unknownFunction);
+    final Checksum checksum = new Checksum(checksumFunction, new EmptyParam(), readBytes(in));
+
+    final CipherFunction cipherFunction =
+        CipherFunction.fromJsonValue(in.readUTF()).orElseThrow(KeyStoreDataCodec::unknownFunction);
+    final CipherParam cipherParam = new CipherParam(readBytes(in));
+    final Cipher cipher = new Cipher(cipherFunction, cipherParam, readBytes(in));
+
+    return new KeyStoreData(new Crypto(kdf, checksum, cipher), pubkey, version, path, uuid);
+  }
+
+  private static void writeBytes(final Bytes bytes, final DataOutput out) throws IOException {
+    out.writeInt(bytes.size());
+    out.write(bytes.toArrayUnsafe());
+  }
+
+  private static Bytes readBytes(final DataInput in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return Bytes.wrap(bytes);
+  }
+
+  private static void writeOptionalString(final String value, final DataOutput out)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readOptionalString(final DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static IOException unknownFunction() {
+    return new IOException("Unknown function in cached KeyStore");
+  }
+}
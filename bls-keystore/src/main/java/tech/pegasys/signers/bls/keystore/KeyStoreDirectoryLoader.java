@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Loads and validates every EIP-2335 keystore in a directory, reading and parsing the files in
+ * parallel on a fork-join pool. A file which cannot be loaded is reported as an error without
+ * affecting the other files.
+ */
+public class KeyStoreDirectoryLoader {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String DEFAULT_GLOB = "*.json";
+  // keystores are small, so each task loads several files to amortise the cost of forking
+  private static final int FILES_PER_TASK = 16;
+
+  private final ForkJoinPool forkJoinPool;
+  private final Optional<KeyStoreCache> keyStoreCache;
+
+  public KeyStoreDirectoryLoader() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public KeyStoreDirectoryLoader(final ForkJoinPool forkJoinPool) {
+    this(forkJoinPool, null);
+  }
+
+  /**
+   * Creates a loader which uses the cache to avoid parsing keystores which have not changed.
+   *
+   * @param forkJoinPool The pool used to load keystores in parallel
+   * @param keyStoreCache The binary keystore cache, or null to always load from JSON
+   */
+  public KeyStoreDirectoryLoader(
+      final ForkJoinPool forkJoinPool, final KeyStoreCache keyStoreCache) {
+    checkNotNull(forkJoinPool, "ForkJoinPool cannot be null");
+    this.forkJoinPool = forkJoinPool;
+    this.keyStoreCache = Optional.ofNullable(keyStoreCache);
+  }
+
+  public KeyStoreLoadResults loadFromDirectory(final Path directory) {
+    return loadFromDirectory(directory, DEFAULT_GLOB);
+  }
+
+  /**
+   * Loads the keystores in the directory, excluding subdirectories.
+   *
+   * @param directory The directory containing one keystore per file
+   * @param glob The pattern keystore filenames must match, such as "*.json"
+   * @return The validated keystores and the error for each file which could not be loaded
+   * @throws KeyStoreValidationException If the directory cannot be read
+   */
+  public KeyStoreLoadResults loadFromDirectory(final Path directory, final String glob) {
+    checkNotNull(directory, "KeyStore directory cannot be null");
+    checkNotNull(glob, "glob cannot be null");
+
+    final List<Path> keyStoreFiles = listKeyStoreFiles(directory, glob);
+    final Map<Path, KeyStoreData> keyStores = new ConcurrentHashMap<>(keyStoreFiles.size());
+    final Map<Path, String> errors = new ConcurrentHashMap<>();
+    forkJoinPool.invoke(new LoadKeyStoresTask(keyStoreFiles, keyStoreCache, keyStores, errors));
+    return new KeyStoreLoadResults(keyStores, errors);
+  }
+
+  private static List<Path> listKeyStoreFiles(final Path directory, final String glob) {
+    final List<Path> keyStoreFiles = new ArrayList<>();
+    try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, glob)) {
+      for (final Path path : directoryStream) {
+        if (Files.isRegularFile(path)) {
+          keyStoreFiles.add(path);
+        }
+      }
+    } catch (final IOException e) {
+      throw new KeyStoreValidationException("Unable to read KeyStore directory: " + directory, e);
+    }
+    return keyStoreFiles;
+  }
+
+  private static class LoadKeyStoresTask extends RecursiveAction {
+    private final List<Path> keyStoreFiles;
+    private final Optional<KeyStoreCache> keyStoreCache;
+    private final Map<Path, KeyStoreData> keyStores;
+    private final Map<Path, String> errors;
+
+    private LoadKeyStoresTask(
+        final List<Path> keyStoreFiles,
+        final Optional<KeyStoreCache> keyStoreCache,
+        final Map<Path, KeyStoreData> keyStores,
+        final Map<Path, String> errors) {
+      this.keyStoreFiles = keyStoreFiles;
+      this.keyStoreCache = keyStoreCache;
+      this.keyStores = keyStores;
+      this.errors = errors;
+    }
+
+    @Override
+    protected void compute() {
+      final int size = keyStoreFiles.size();
+      if (size <= FILES_PER_TASK) {
+        keyStoreFiles.forEach(this::load);
+        return;
+      }
+
+      final int middle = size / 2;
+      invokeAll(
+          new LoadKeyStoresTask(
+              keyStoreFiles.subList(0, middle), keyStoreCache, keyStores, errors),
+          new LoadKeyStoresTask(
+              keyStoreFiles.subList(middle, size), keyStoreCache, keyStores, errors));
+    }
+
+    private void load(final Path keyStoreFile) {
+      try {
+        final KeyStoreData keyStoreData =
+            keyStoreCache.isPresent()
+                ? keyStoreCache.get().loadFromFile(keyStoreFile)
+                : KeyStoreLoader.loadFromFile(keyStoreFile);
+        keyStores.put(keyStoreFile, keyStoreData);
+      } catch (final RuntimeException e) {
+        LOG.debug("Failed to load keystore {}", keyStoreFile, e);
+        errors.put(keyStoreFile, String.valueOf(e.getMessage()));
+      }
+    }
+  }
+}
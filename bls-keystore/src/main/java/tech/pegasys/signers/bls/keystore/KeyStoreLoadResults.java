@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/** Contains the keystores loaded from a directory and the error for each file which failed. */
+public class KeyStoreLoadResults {
+  private final Map<Path, KeyStoreData> keyStores;
+  private final Map<Path, String> errors;
+
+  public KeyStoreLoadResults(
+      final Map<Path, KeyStoreData> keyStores, final Map<Path, String> errors) {
+    this.keyStores = keyStores;
+    this.errors = errors;
+  }
+
+  public Map<Path, KeyStoreData> getKeyStores() {
+    return Collections.unmodifiableMap(keyStores);
+  }
+
+  public Map<Path, String> getErrors() {
+    return Collections.unmodifiableMap(errors);
+  }
+
+  public int getErrorCount() {
+    return errors.size();
+  }
+}
@@ -17,11 +17,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import tech.pegasys.signers.bls.keystore.model.KdfParam;
 import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -42,7 +43,7 @@ public class KeyStoreLoader {
 
   public static KeyStoreData loadFromString(final String keystoreString) {
     try {
-      final KeyStoreData keyStoreData = OBJECT_MAPPER.readValue(keystoreString, KeyStoreData.class);
+      final KeyStoreData keyStoreData = readKeyStoreData(keystoreString);
       keyStoreData.validate();
       return keyStoreData;
     } catch (final JsonParseException e) {
@@ -60,17 +61,30 @@ public class KeyStoreLoader {
       throws KeyStoreValidationException {
     checkNotNull(keystoreFile, "KeyStore path cannot be null");
 
+    return loadFromBytes(readKeyStoreFile(keystoreFile));
+  }
+
+  static byte[] readKeyStoreFile(final Path keystoreFile) {
+    try {
+      return Files.readAllBytes(keystoreFile);
+    } catch (final NoSuchFileException e) {
+      throw new KeyStoreValidationException("KeyStore file not found: " + keystoreFile, e);
+    } catch (final IOException e) {
+      LOG.error("Unexpected IO error while reading KeyStore: " + e.getMessage());
+      throw new KeyStoreValidationException(
+          "Unexpected IO error while reading KeyStore: " + e.getMessage(), e);
+    }
+  }
+
+  static KeyStoreData loadFromBytes(final byte[] keystoreBytes) {
     try {
-      final KeyStoreData keyStoreData =
-          OBJECT_MAPPER.readValue(keystoreFile.toFile(), KeyStoreData.class);
+      final KeyStoreData keyStoreData = readKeyStoreData(keystoreBytes);
       keyStoreData.validate();
       return keyStoreData;
     } catch (final JsonParseException e) {
       throw new KeyStoreValidationException("Invalid KeyStore: " + e.getMessage(), e);
     } catch (final JsonMappingException e) {
       throw convertToKeyStoreValidationException(e);
-    } catch (final FileNotFoundException e) {
-      throw new KeyStoreValidationException("KeyStore file not found: " + keystoreFile, e);
     } catch (final IOException e) {
       LOG.error("Unexpected IO error while reading KeyStore: " + e.getMessage());
       throw new KeyStoreValidationException(
@@ -78,6 +92,23 @@ public class KeyStoreLoader {
     }
   }
 
+  // the streaming parser handles well-formed keystores, anything else is left to the ObjectMapper
+  private static KeyStoreData readKeyStoreData(final String keystoreString) throws IOException {
+    final Optional<KeyStoreData> keyStoreData = StreamingKeyStoreParser.parse(keystoreString);
+    if (keyStoreData.isPresent()) {
+      return keyStoreData.get();
+    }
+    return OBJECT_MAPPER.readValue(keystoreString, KeyStoreData.class);
+  }
+
+  private static KeyStoreData readKeyStoreData(final byte[] keystoreBytes) throws IOException {
+    final Optional<KeyStoreData> keyStoreData = StreamingKeyStoreParser.parse(keystoreBytes);
+    if (keyStoreData.isPresent()) {
+      return keyStoreData.get();
+    }
+    return OBJECT_MAPPER.readValue(keystoreBytes, KeyStoreData.class);
+  }
+
   private static KeyStoreValidationException convertToKeyStoreValidationException(
       final JsonMappingException e) {
     final String cause;
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Admits scrypt key derivations against a memory budget so that concurrent derivations cannot
+ * exhaust the heap. Each derivation reserves the memory scrypt allocates for its n, r and p
+ * parameters before it starts and releases it when it completes; other KDFs are not limited.
+ *
+ * <p>Memory is reserved in fair order, so a large derivation is not starved by smaller ones. A
+ * derivation requiring more than the whole budget is admitted on its own.
+ */
+public class ScryptMemoryScheduler implements DecryptionKeyGenerator {
+  // the semaphore counts KiB so that budgets up to 2TiB fit in an int
+  private static final int BYTES_PER_PERMIT = 1024;
+
+  private final long memoryBudgetBytes;
+  private final int budgetPermits;
+  private final Semaphore memoryPermits;
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicInteger activeDerivations = new AtomicInteger();
+  private final LongAdder completedDerivations = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  public ScryptMemoryScheduler(final long memoryBudgetBytes) {
+    checkArgument(
+        memoryBudgetBytes >= BYTES_PER_PERMIT, "memoryBudgetBytes must be >= %s", BYTES_PER_PERMIT);
+    this.memoryBudgetBytes = memoryBudgetBytes;
+    this.budgetPermits = (int) Math.min(Integer.MAX_VALUE, memoryBudgetBytes / BYTES_PER_PERMIT);
+    this.memoryPermits = new Semaphore(budgetPermits, true);
+  }
+
+  /** Creates a scheduler whose budget is half of the maximum heap size. */
+  public static ScryptMemoryScheduler withDefaultBudget(final Runtime runtime) {
+    return new ScryptMemoryScheduler(Math.max(BYTES_PER_PERMIT, runtime.maxMemory() / 2));
+  }
+
+  /**
+   * Estimates the memory BouncyCastle allocates for a scrypt derivation: the 128 * r * n byte
+   * lookup table, 128 * r * p bytes for the initial PBKDF2 output and 256 * r bytes of scratch.
+   */
+  public static long requiredMemoryBytes(final SCryptParam param) {
+    final long r = param.getR();
+    return 128L * r * ((long) param.getN() + param.getP() + 2);
+  }
+
+  @Override
+  public Bytes generateDecryptionKey(final KdfParam kdfParam, final String password) {
+    checkNotNull(kdfParam, "KDFParam cannot be null");
+    checkNotNull(password, "Password cannot be null");
+    if (!(kdfParam instanceof SCryptParam)) {
+      return kdfParam.generateDecryptionKey(password);
+    }
+
+    final int permits = permitsFor((SCryptParam) kdfParam);
+    acquire(permits);
+    activeDerivations.incrementAndGet();
+    try {
+      return kdfParam.generateDecryptionKey(password);
+    } finally {
+      activeDerivations.decrementAndGet();
+      completedDerivations.increment();
+      memoryPermits.release(permits);
+    }
+  }
+
+  private int permitsFor(final SCryptParam param) {
+    final long permits = (requiredMemoryBytes(param) + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT;
+    return (int) Math.min(permits, budgetPermits);
+  }
+
+  private void acquire(final int permits) {
+    try {
+      // the timed form honours fairness, so an uncontended derivation never overtakes one waiting
+      if (memoryPermits.tryAcquire(permits, 0, TimeUnit.SECONDS)) {
+        return;
+      }
+      waitFor(permits);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for memory to derive key", e);
+    }
+  }
+
+  private void waitFor(final int permits) throws InterruptedException {
+    final long waitStart = System.nanoTime();
+    queueDepth.incrementAndGet();
+    try {
+      memoryPermits.acquire(permits);
+    } finally {
+      queueDepth.decrementAndGet();
+      recordWait(System.nanoTime() - waitStart);
+    }
+  }
+
+  private void recordWait(final long waitNanos) {
+    totalWaitNanos.add(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+  }
+
+  public long getMemoryBudgetBytes() {
+    return memoryBudgetBytes;
+  }
+
+  public long getAvailableMemoryBytes() {
+    return (long) memoryPermits.availablePermits() * BYTES_PER_PERMIT;
+  }
+
+  /** Number of derivations currently waiting for memory to become available. */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  public int getActiveDerivations() {
+    return activeDerivations.get();
+  }
+
+  public long getCompletedDerivations() {
+    return completedDerivations.sum();
+  }
+
+  /** Total time derivations have spent waiting for memory, across all threads. */
+  public Duration getTotalWaitTime() {
+    return Duration.ofNanos(totalWaitNanos.sum());
+  }
+
+  public Duration getMaxWaitTime() {
+    return Duration.ofNanos(maxWaitNanos.get());
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import tech.pegasys.signers.bls.keystore.model.Checksum;
+import tech.pegasys.signers.bls.keystore.model.ChecksumFunction;
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.CipherFunction;
+import tech.pegasys.signers.bls.keystore.model.CipherParam;
+import tech.pegasys.signers.bls.keystore.model.Crypto;
+import tech.pegasys.signers.bls.keystore.model.EmptyParam;
+import tech.pegasys.signers.bls.keystore.model.Kdf;
+import tech.pegasys.signers.bls.keystore.model.KdfFunction;
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Decodes the fixed EIP-2335 schema directly from the JSON token stream, without data binding or
+ * polymorphic type resolution.
+ *
+ * <p>Only input which exactly matches the schema is decoded. Anything else, such as unsupported
+ * functions, missing fields, unexpected value types or malformed JSON, results in an empty result
+ * so that the caller can fall back to the ObjectMapper, which reports the appropriate error.
+ */
+final class StreamingKeyStoreParser {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private StreamingKeyStoreParser() {}
+
+  static Optional<KeyStoreData> parse(final String keystoreString) {
+    try {
+      return parse(JSON_FACTORY.createParser(keystoreString));
+    } catch (final IOException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  static Optional<KeyStoreData> parse(final byte[] keystoreBytes) {
+    try {
+      return parse(JSON_FACTORY.createParser(keystoreBytes));
+    } catch (final IOException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Optional<KeyStoreData> parse(final JsonParser parser) throws IOException {
+    try (parser) {
+      parser.nextToken();
+      return Optional.of(readKeyStoreData(parser));
+    }
+  }
+
+  private static KeyStoreData readKeyStoreData(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    Crypto crypto = null;
+    Bytes pubkey = null;
+    Integer version = null;
+    String path = null;
+    UUID uuid = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "crypto":
+          crypto = readCrypto(parser);
+          break;
+        case "pubkey":
+          pubkey = readHex(parser);
+          break;
+        case "version":
+          version = readInt(parser);
+          break;
+        case "path":
+          path = readString(parser);
+          break;
+        case "uuid":
+          uuid = readUuid(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new KeyStoreData(require(crypto), require(pubkey), require(version), path, uuid);
+  }
+
+  private static Crypto readCrypto(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    Kdf kdf = null;
+    Checksum checksum = null;
+    Cipher cipher = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "kdf":
+          kdf = readKdf(parser);
+          break;
+        case "checksum":
+          checksum = readChecksum(parser);
+          break;
+        case "cipher":
+          cipher = readCipher(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Crypto(require(kdf), require(checksum), require(cipher));
+  }
+
+  private static Kdf readKdf(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    KdfFunction function = null;
+    KdfParamFields params = null;
+    String message = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "function":
+          function =
+              KdfFunction.fromJsonValue(readString(parser))
+                  .orElseThrow(UnsupportedInputException::new);
+          break;
+        case "params":
+          params = readKdfParamFields(parser);
+          break;
+        case "message":
+          message = readString(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    // params may appear before function, so the type is only resolved once both have been read
+    return new Kdf(require(function), require(params).toKdfParam(function), require(message));
+  }
+
+  private static KdfParamFields readKdfParamFields(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    final KdfParamFields params = new KdfParamFields();
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "dklen":
+          params.dklen = readInt(parser);
+          break;
+        case "salt":
+          params.salt = readHex(parser);
+          break;
+        case "n":
+          params.n = readInt(parser);
+          break;
+        case "p":
+          params.p = readInt(parser);
+          break;
+        case "r":
+          params.r = readInt(parser);
+          break;
+        case "c":
+          params.c = readInt(parser);
+          break;
+        case "prf":
+          params.prf =
+              Pbkdf2PseudoRandomFunction.fromJsonValue(readString(parser))
+                  .orElseThrow(UnsupportedInputException::new);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return params;
+  }
+
+  private static Checksum readChecksum(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    ChecksumFunction function = null;
+    EmptyParam params = null;
+    Bytes message = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "function":
+          function =
+              ChecksumFunction.fromJsonValue(readString(parser))
+                  .orElseThrow(UnsupportedInputException::new);
+          break;
+        case "params":
+          requireToken(parser, JsonToken.START_OBJECT);
+          parser.skipChildren();
+          params = new EmptyParam();
+          break;
+        case "message":
+          message = readHex(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Checksum(require(function), require(params), require(message));
+  }
+
+  private static Cipher readCipher(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    CipherFunction function = null;
+    CipherParam params = null;
+    Bytes message = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      switch (field) {
+        case "function":
+          function =
+              CipherFunction.fromJsonValue(readString(parser))
+                  .orElseThrow(UnsupportedInputException::new);
+          break;
+        case "params":
+          params = readCipherParam(parser);
+          break;
+        case "message":
+          message = readHex(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Cipher(require(function), require(params), require(message));
+  }
+
+  private static CipherParam readCipherParam(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.START_OBJECT);
+    Bytes iv = null;
+    String field;
+    while ((field = nextField(parser)) != null) {
+      if (field.equals("iv")) {
+        iv = readHex(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new CipherParam(require(iv));
+  }
+
+  /** Advances to the next field's value, returning its name or null at the end of the object. */
+  private static String nextField(final JsonParser parser) throws IOException {
+    final JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_OBJECT) {
+      return null;
+    }
+    requireToken(parser, JsonToken.FIELD_NAME);
+    final String field = parser.currentName();
+    parser.nextToken();
+    return field;
+  }
+
+  private static String readString(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.VALUE_STRING);
+    return parser.getText();
+  }
+
+  private static int readInt(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.VALUE_NUMBER_INT);
+    if (parser.getNumberType() != JsonParser.NumberType.INT) {
+      throw new UnsupportedInputException();
+    }
+    return parser.getIntValue();
+  }
+
+  private static UUID readUuid(final JsonParser parser) throws IOException {
+    final String value = readString(parser);
+    // only the canonical form, anything else is left to the ObjectMapper's UUID handling
+    if (value.length() != 36
+        || value.charAt(8) != '-'
+        || value.charAt(13) != '-'
+        || value.charAt(18) != '-'
+        || value.charAt(23) != '-') {
+      throw new UnsupportedInputException();
+    }
+    return UUID.fromString(value);
+  }
+
+  /** Decodes hex, with an optional 0x prefix, directly from the parser's character buffer. */
+  private static Bytes readHex(final JsonParser parser) throws IOException {
+    requireToken(parser, JsonToken.VALUE_STRING);
+    try {
+      return Bytes.wrap(
+          HexCodec.decode(
+              parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+    } catch (final IllegalArgumentException e) {
+      throw new UnsupportedInputException();
+    }
+  }
+
+  private static void requireToken(final JsonParser parser, final JsonToken expected) {
+    if (parser.currentToken() != expected) {
+      throw new UnsupportedInputException();
+    }
+  }
+
+  private static <T> T require(final T value) {
+    if (value == null) {
+      throw new UnsupportedInputException();
+    }
+    return value;
+  }
+
+  private static class KdfParamFields {
+    private Integer dklen;
+    private Bytes salt;
+    private Integer n;
+    private Integer p;
+    private Integer r;
+    private Integer c;
+    private Pbkdf2PseudoRandomFunction prf;
+
+    private KdfParam toKdfParam(final KdfFunction function) {
+      switch (function) {
+        case SCRYPT:
+          return new SCryptParam(require(dklen), require(n), require(p), require(r), require(salt));
+        case PBKDF2:
+          return new Pbkdf2Param(require(dklen), require(c), require(prf), require(salt));
+        default:
+          throw new UnsupportedInputException();
+      }
+    }
+  }
+
+  /** Signals input which is left to the ObjectMapper, so does not capture a stack trace. */
+  private static class UnsupportedInputException extends RuntimeException {
+    private UnsupportedInputException() {
+      super(null, null, false, false);
+    }
+  }
+}
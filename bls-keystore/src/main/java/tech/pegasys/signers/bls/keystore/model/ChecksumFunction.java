@@ -12,10 +12,19 @@
  */
 package tech.pegasys.signers.bls.keystore.model;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.Maps;
 
 public enum ChecksumFunction {
   SHA256("sha256");
+
+  private static final Map<String, ChecksumFunction> BY_JSON_VALUE =
+      Maps.uniqueIndex(Arrays.asList(values()), ChecksumFunction::getJsonValue);
+
   private final String jsonValue;
 
   ChecksumFunction(final String jsonValue) {
@@ -26,4 +35,8 @@ public enum ChecksumFunction {
   public String getJsonValue() {
     return this.jsonValue;
   }
+
+  public static Optional<ChecksumFunction> fromJsonValue(final String jsonValue) {
+    return Optional.ofNullable(BY_JSON_VALUE.get(jsonValue));
+  }
 }
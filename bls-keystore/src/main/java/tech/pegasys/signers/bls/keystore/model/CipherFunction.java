@@ -12,11 +12,19 @@
  */
 package tech.pegasys.signers.bls.keystore.model;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.Maps;
 
 public enum CipherFunction {
   AES_128_CTR("aes-128-ctr");
 
+  private static final Map<String, CipherFunction> BY_JSON_VALUE =
+      Maps.uniqueIndex(Arrays.asList(values()), CipherFunction::getJsonValue);
+
   private final String jsonValue;
 
   CipherFunction(final String jsonValue) {
@@ -27,4 +35,8 @@ public enum CipherFunction {
   public String getJsonValue() {
     return this.jsonValue;
   }
+
+  public static Optional<CipherFunction> fromJsonValue(final String jsonValue) {
+    return Optional.ofNullable(BY_JSON_VALUE.get(jsonValue));
+  }
 }
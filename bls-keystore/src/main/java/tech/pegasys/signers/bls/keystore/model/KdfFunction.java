@@ -12,12 +12,20 @@
  */
 package tech.pegasys.signers.bls.keystore.model;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.Maps;
 
 public enum KdfFunction {
   PBKDF2("pbkdf2"),
   SCRYPT("scrypt");
 
+  private static final Map<String, KdfFunction> BY_JSON_VALUE =
+      Maps.uniqueIndex(Arrays.asList(values()), KdfFunction::getJsonValue);
+
   private final String jsonValue;
 
   KdfFunction(final String jsonValue) {
@@ -28,4 +36,8 @@ public enum KdfFunction {
   public String getJsonValue() {
     return this.jsonValue;
   }
+
+  public static Optional<KdfFunction> fromJsonValue(final String jsonValue) {
+    return Optional.ofNullable(BY_JSON_VALUE.get(jsonValue));
+  }
 }
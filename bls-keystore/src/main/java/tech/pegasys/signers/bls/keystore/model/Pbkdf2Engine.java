@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore.model;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/** An implementation of PBKDF2 with HMAC-SHA256 as the pseudorandom function. */
+public interface Pbkdf2Engine {
+  String getName();
+
+  /**
+   * Derives a key from the already normalized password.
+   *
+   * @param password The normalized password bytes
+   * @param salt The salt
+   * @param iterations The iteration count
+   * @param keyLength The length of the key to generate in bytes
+   * @return The derived key
+   */
+  Bytes deriveKey(Bytes password, Bytes salt, int iterations, int keyLength);
+}
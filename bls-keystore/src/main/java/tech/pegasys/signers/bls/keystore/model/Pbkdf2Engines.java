@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.util.DigestFactory;
+
+/**
+ * Provides the available {@link Pbkdf2Engine} implementations and selects the default one.
+ *
+ * <p>The default is chosen the first time it is needed: each candidate must reproduce known test
+ * vectors, and the fastest of those that do is used. The BouncyCastle engine is the reference
+ * implementation and is used if no other engine qualifies.
+ */
+public final class Pbkdf2Engines {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int BENCHMARK_ITERATIONS = 4096;
+  private static final int BENCHMARK_ROUNDS = 3;
+
+  private Pbkdf2Engines() {}
+
+  public static Pbkdf2Engine getDefault() {
+    return DefaultEngineHolder.DEFAULT_ENGINE;
+  }
+
+  public static Pbkdf2Engine bouncyCastle() {
+    return BouncyCastlePbkdf2Engine.INSTANCE;
+  }
+
+  /** The JDK's PBKDF2WithHmacSHA256 SecretKeyFactory, if available from the installed providers. */
+  public static Optional<Pbkdf2Engine> jca() {
+    try {
+      SecretKeyFactory.getInstance(JcaPbkdf2Engine.ALGORITHM);
+      return Optional.of(new JcaPbkdf2Engine());
+    } catch (final NoSuchAlgorithmException e) {
+      return Optional.empty();
+    }
+  }
+
+  static Pbkdf2Engine select(final List<Pbkdf2Engine> candidates) {
+    Pbkdf2Engine fastest = bouncyCastle();
+    long fastestNanos = Long.MAX_VALUE;
+    for (final Pbkdf2Engine candidate : candidates) {
+      if (!passesKnownAnswerTests(candidate)) {
+        LOG.warn("PBKDF2 engine {} failed known answer tests and will not be used", candidate);
+        continue;
+      }
+      final long nanos = benchmark(candidate);
+      LOG.debug(
+          "PBKDF2 engine {} took {}ns for {} iterations", candidate, nanos, BENCHMARK_ITERATIONS);
+      if (nanos < fastestNanos) {
+        fastest = candidate;
+        fastestNanos = nanos;
+      }
+    }
+    LOG.debug("Using PBKDF2 engine {}", fastest.getName());
+    return fastest;
+  }
+
+  static boolean passesKnownAnswerTests(final Pbkdf2Engine engine) {
+    try {
+      return Arrays.stream(KnownAnswerTest.values()).allMatch(test -> test.passes(engine));
+    } catch (final RuntimeException e) {
+      LOG.debug("PBKDF2 engine {} failed known answer tests", engine.getName(), e);
+      return false;
+    }
+  }
+
+  private static long benchmark(final Pbkdf2Engine engine) {
+    final Bytes password = Bytes.wrap("benchmark".getBytes(UTF_8));
+    final Bytes salt = Bytes.wrap(new byte[32]);
+    // the first round warms up the implementation, the fastest of the remaining rounds is used
+    engine.deriveKey(password, salt, BENCHMARK_ITERATIONS, 32);
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+      final long start = System.nanoTime();
+      engine.deriveKey(password, salt, BENCHMARK_ITERATIONS, 32);
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return fastest;
+  }
+
+  private static class DefaultEngineHolder {
+    private static final Pbkdf2Engine DEFAULT_ENGINE = select(candidates());
+
+    private static List<Pbkdf2Engine> candidates() {
+      final List<Pbkdf2Engine> candidates = new ArrayList<>();
+      candidates.add(bouncyCastle());
+      jca().ifPresent(candidates::add);
+      return candidates;
+    }
+  }
+
+  private enum KnownAnswerTest {
+    // RFC 7914 section 11
+    RFC_7914(
+        "passwd",
+        "73616c74",
+        1,
+        "55ac046e56e3089fec1691c22544b605f94185216dde0465e68b9d57c20dacbc"
+            + "49ca9cccf179b645991664b39d77ef317c71b845b1e30bd509112041d3a19783"),
+    // the normalized EIP-2335 test vector password, which is not ASCII
+    EIP_2335_PASSWORD(
+        "testpassword\uD83D\uDD11",
+        "d4e56740f876aef8c010b86a40d5f56745a118d0906a34e69aec8c0db1cb8fa3",
+        2,
+        "e9fbaec75d966e23f4e85736224dffa7fc645dbc6d500cd8e1f726f3f7d7eac7");
+
+    private final Bytes password;
+    private final Bytes salt;
+    private final int iterations;
+    private final Bytes expectedKey;
+
+    KnownAnswerTest(
+        final String password, final String salt, final int iterations, final String expectedKey) {
+      this.password = Bytes.wrap(password.getBytes(UTF_8));
+      this.salt = Bytes.fromHexString(salt);
+      this.iterations = iterations;
+      this.expectedKey = Bytes.fromHexString(expectedKey);
+    }
+
+    private boolean passes(final Pbkdf2Engine engine) {
+      return expectedKey.equals(engine.deriveKey(password, salt, iterations, expectedKey.size()));
+    }
+  }
+
+  private static class BouncyCastlePbkdf2Engine implements Pbkdf2Engine {
+    private static final BouncyCastlePbkdf2Engine INSTANCE = new BouncyCastlePbkdf2Engine();
+
+    @Override
+    public String getName() {
+      return "BouncyCastle";
+    }
+
+    @Override
+    public Bytes deriveKey(
+        final Bytes password, final Bytes salt, final int iterations, final int keyLength) {
+      final PKCS5S2ParametersGenerator gen =
+          new PKCS5S2ParametersGenerator(DigestFactory.createSHA256());
+      gen.init(password.toArrayUnsafe(), salt.toArrayUnsafe(), iterations);
+      final int keySizeInBits = keyLength * 8;
+      final byte[] key = ((KeyParameter) gen.generateDerivedParameters(keySizeInBits)).getKey();
+      return Bytes.wrap(key);
+    }
+
+    @Override
+    public String toString() {
+      return getName();
+    }
+  }
+
+  /**
+   * Uses the JCA SecretKeyFactory, which takes the password as characters and encodes them as
+   * UTF-8. Normalized passwords are UTF-8 so are passed as characters, falling back to BouncyCastle
+   * for any input the JCA cannot represent identically, such as an empty password or salt.
+   */
+  private static class JcaPbkdf2Engine implements Pbkdf2Engine {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final ThreadLocal<SecretKeyFactory> SECRET_KEY_FACTORY =
+        ThreadLocal.withInitial(JcaPbkdf2Engine::createSecretKeyFactory);
+
+    @Override
+    public String getName() {
+      return ALGORITHM + " (" + SECRET_KEY_FACTORY.get().getProvider().getName() + ")";
+    }
+
+    @Override
+    public Bytes deriveKey(
+        final Bytes password, final Bytes salt, final int iterations, final int keyLength) {
+      final byte[] passwordBytes = password.toArrayUnsafe();
+      final char[] passwordChars = new String(passwordBytes, UTF_8).toCharArray();
+      if (passwordChars.length == 0
+          || salt.isEmpty()
+          || !Arrays.equals(passwordBytes, new String(passwordChars).getBytes(UTF_8))) {
+        return bouncyCastle().deriveKey(password, salt, iterations, keyLength);
+      }
+
+      final PBEKeySpec keySpec =
+          new PBEKeySpec(passwordChars, salt.toArrayUnsafe(), iterations, keyLength * 8);
+      try {
+        return Bytes.wrap(SECRET_KEY_FACTORY.get().generateSecret(keySpec).getEncoded());
+      } catch (final GeneralSecurityException e) {
+        throw new IllegalStateException("Unexpected error generating PBKDF2 key", e);
+      } finally {
+        keySpec.clearPassword();
+        Arrays.fill(passwordChars, '\0');
+      }
+    }
+
+    @Override
+    public String toString() {
+      return getName();
+    }
+
+    private static SecretKeyFactory createSecretKeyFactory() {
+      try {
+        return SecretKeyFactory.getInstance(ALGORITHM);
+      } catch (final NoSuchAlgorithmException e) {
+        throw new IllegalStateException(ALGORITHM + " is not available", e);
+      }
+    }
+  }
+}
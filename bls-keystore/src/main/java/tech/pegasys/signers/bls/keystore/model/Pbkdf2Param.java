@@ -21,9 +21,6 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import org.apache.tuweni.bytes.Bytes;
-import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
-import org.bouncycastle.crypto.params.KeyParameter;
-import org.bouncycastle.crypto.util.DigestFactory;
 
 public class Pbkdf2Param extends KdfParam {
 
@@ -76,12 +73,7 @@ public class Pbkdf2Param extends KdfParam {
   @Override
   protected Bytes generateDecryptionKey(final Bytes password) {
     checkNotNull(password, "Password cannot be null");
-    final PKCS5S2ParametersGenerator gen =
-        new PKCS5S2ParametersGenerator(DigestFactory.createSHA256());
-    gen.init(password.toArrayUnsafe(), getSalt().toArrayUnsafe(), c);
-    final int keySizeInBits = getDkLen() * 8;
-    final byte[] key = ((KeyParameter) gen.generateDerivedParameters(keySizeInBits)).getKey();
-    return Bytes.wrap(key);
+    return Pbkdf2Engines.getDefault().deriveKey(password, getSalt(), c, getDkLen());
   }
 
   @Override
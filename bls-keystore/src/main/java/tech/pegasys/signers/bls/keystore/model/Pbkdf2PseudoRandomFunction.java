@@ -12,10 +12,19 @@
  */
 package tech.pegasys.signers.bls.keystore.model;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.Maps;
 
 public enum Pbkdf2PseudoRandomFunction {
   HMAC_SHA256("hmac-sha256");
+
+  private static final Map<String, Pbkdf2PseudoRandomFunction> BY_JSON_VALUE =
+      Maps.uniqueIndex(Arrays.asList(values()), Pbkdf2PseudoRandomFunction::getJsonValue);
+
   private final String jsonValue;
 
   Pbkdf2PseudoRandomFunction(final String jsonValue) {
@@ -26,4 +35,8 @@ public enum Pbkdf2PseudoRandomFunction {
   public String getJsonValue() {
     return this.jsonValue;
   }
+
+  public static Optional<Pbkdf2PseudoRandomFunction> fromJsonValue(final String jsonValue) {
+    return Optional.ofNullable(BY_JSON_VALUE.get(jsonValue));
+  }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkKeyStoreDecryptorTest {
+  private static final String PASSWORD = "password";
+  private static final Bytes BLS_PUB_KEY =
+      Bytes.fromHexString(
+          "9612d7a727c9d0a22e185a1c768478dfe919cada9266988cb32359c11f2b7b27f4ae4040902382ae2910c15e2b420d07");
+
+  @TempDir Path tempDir;
+
+  private final BulkKeyStoreDecryptor decryptor = new BulkKeyStoreDecryptor(4);
+
+  @AfterEach
+  void afterEach() {
+    decryptor.close();
+  }
+
+  @Test
+  void allKeyStoresAreDecrypted() throws Exception {
+    final List<Path> keyStoreFiles = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      keyStoreFiles.add(createKeyStore("keystore" + i + ".json", privateKey(i)));
+    }
+
+    final BulkDecryptionResults results = decryptor.decrypt(keyStoreFiles, path -> PASSWORD);
+
+    assertThat(results.getErrorCount()).isZero();
+    assertThat(results.getValues()).hasSize(10);
+    results
+        .getValues()
+        .forEach(
+            result ->
+                assertThat(result.getPrivateKey())
+                    .contains(privateKey(indexOf(result.getKeyStoreFile()))));
+  }
+
+  @Test
+  void failuresAreReportedPerKeyStore() throws Exception {
+    final Path valid = createKeyStore("keystore0.json", privateKey(0));
+    final Path wrongPassword = createKeyStore("keystore1.json", privateKey(1));
+    final Path invalidJson = Files.writeString(tempDir.resolve("keystore2.json"), "{");
+    final Path missing = tempDir.resolve("keystore3.json");
+    final Function<Path, String> passwordProvider =
+        path -> path.equals(wrongPassword) ? "wrong" : PASSWORD;
+
+    final List<DecryptionResult> streamedResults = new ArrayList<>();
+    decryptor.decrypt(
+        List.of(valid, wrongPassword, invalidJson, missing), passwordProvider, streamedResults::add);
+    final BulkDecryptionResults results = new BulkDecryptionResults(streamedResults);
+
+    assertThat(results.getValues())
+        .extracting(DecryptionResult::getKeyStoreFile)
+        .containsExactly(valid);
+    assertThat(results.getErrorCount()).isEqualTo(3);
+    assertThat(results.getErrors())
+        .extracting(DecryptionResult::getKeyStoreFile)
+        .containsExactlyInAnyOrder(wrongPassword, invalidJson, missing);
+    assertThat(results.getErrors()).allMatch(result -> result.getErrorMessage().isPresent());
+  }
+
+  @Test
+  void exceptionWithoutMessageIsReportedAsFailure() throws Exception {
+    final Path valid = createKeyStore("keystore0.json", privateKey(0));
+    final Path noPassword = createKeyStore("keystore1.json", privateKey(1));
+    final Function<Path, String> passwordProvider =
+        path -> {
+          if (path.equals(noPassword)) {
+            throw new IllegalStateException();
+          }
+          return PASSWORD;
+        };
+
+    final BulkDecryptionResults results =
+        decryptor.decrypt(List.of(valid, noPassword), passwordProvider);
+
+    assertThat(results.getValues())
+        .extracting(DecryptionResult::getKeyStoreFile)
+        .containsExactly(valid);
+    assertThat(results.getErrorCount()).isOne();
+    assertThat(results.getErrors()).hasSize(1);
+    final DecryptionResult failure = results.getErrors().get(0);
+    assertThat(failure.getKeyStoreFile()).isEqualTo(noPassword);
+    assertThat(failure.isSuccess()).isFalse();
+    assertThat(failure.getPrivateKey()).isEmpty();
+    assertThat(failure.getErrorMessage()).contains("null");
+  }
+
+  @Test
+  void defaultDecryptorUsesOneThreadPerProcessor() {
+    try (final BulkKeyStoreDecryptor defaultDecryptor = new BulkKeyStoreDecryptor()) {
+      assertThat(defaultDecryptor.getParallelism())
+          .isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  private Path createKeyStore(final String filename, final Bytes privateKey) throws IOException {
+    final Pbkdf2Param kdfParam =
+        new Pbkdf2Param(32, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, Bytes32.random());
+    final KeyStoreData keyStoreData =
+        KeyStore.encrypt(
+            privateKey, BLS_PUB_KEY, PASSWORD, "", kdfParam, new Cipher(Bytes.random(16)));
+    final Path keyStoreFile = tempDir.resolve(filename);
+    KeyStoreLoader.saveToFile(keyStoreFile, keyStoreData);
+    return keyStoreFile;
+  }
+
+  private static Bytes privateKey(final int index) {
+    return Bytes32.leftPad(Bytes.of(index + 1));
+  }
+
+  private static int indexOf(final Path keyStoreFile) {
+    final String filename = keyStoreFile.getFileName().toString();
+    return Integer.parseInt(filename.substring("keystore".length(), filename.indexOf('.')));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.signers.bls.keystore.model.KdfParam;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkKeyStoreEncryptorTest {
+  private static final String PASSWORD = "password";
+  private static final Bytes BLS_PUB_KEY =
+      Bytes.fromHexString(
+          "9612d7a727c9d0a22e185a1c768478dfe919cada9266988cb32359c11f2b7b27f4ae4040902382ae2910c15e2b420d07");
+
+  @TempDir Path tempDir;
+
+  private final AtomicInteger derivations = new AtomicInteger();
+  private final BulkKeyStoreEncryptor encryptor =
+      new BulkKeyStoreEncryptor(4, this::countingGenerateDecryptionKey);
+
+  @AfterEach
+  void afterEach() {
+    encryptor.close();
+  }
+
+  @Test
+  void sharedKdfDerivesKeyOnce() {
+    final List<EncryptionRequest> requests = requests(20);
+
+    final List<KeyStoreData> keyStores =
+        encryptor.encryptWithSharedKdf(requests, PASSWORD, pbkdf2Param());
+
+    assertThat(derivations).hasValue(1);
+    assertDecryptsToRequestedKeys(keyStores, requests);
+    assertThat(keyStores)
+        .extracting(keyStoreData -> keyStoreData.getCrypto().getKdf().getParam().getSalt())
+        .containsOnly(keyStores.get(0).getCrypto().getKdf().getParam().getSalt());
+    assertThat(keyStores)
+        .extracting(keyStoreData -> keyStoreData.getCrypto().getCipher().getCipherParam().getIv())
+        .doesNotHaveDuplicates();
+  }
+
+  @Test
+  void separateKdfDerivesKeyPerKeyStore() throws Exception {
+    final List<EncryptionRequest> requests = requests(20);
+
+    final List<KeyStoreData> keyStores =
+        encryptor.encrypt(requests, PASSWORD, BulkKeyStoreEncryptorTest::pbkdf2Param);
+
+    assertThat(derivations).hasValue(20);
+    assertDecryptsToRequestedKeys(keyStores, requests);
+    assertThat(keyStores)
+        .extracting(keyStoreData -> keyStoreData.getCrypto().getKdf().getParam().getSalt())
+        .doesNotHaveDuplicates();
+  }
+
+  @Test
+  void invalidKdfParamIsReported() {
+    final KdfParam invalidParam =
+        new Pbkdf2Param(16, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, Bytes32.random());
+
+    assertThatThrownBy(() -> encryptor.encrypt(requests(2), PASSWORD, () -> invalidParam))
+        .isInstanceOf(KeyStoreValidationException.class)
+        .hasMessage("Generated key length parameter dklen must be >= 32.");
+  }
+
+  @Test
+  void keyStoresAreSavedToFiles() throws Exception {
+    final List<KeyStoreData> keyStores =
+        encryptor.encryptWithSharedKdf(requests(10), PASSWORD, pbkdf2Param());
+    final Map<Path, KeyStoreData> keyStoreFiles = new HashMap<>();
+    for (int i = 0; i < keyStores.size(); i++) {
+      keyStoreFiles.put(tempDir.resolve("keystore" + i + ".json"), keyStores.get(i));
+    }
+
+    encryptor.saveToFiles(keyStoreFiles);
+
+    keyStoreFiles.forEach(
+        (file, keyStoreData) ->
+            assertThat(KeyStoreLoader.loadFromFile(file)).hasToString(keyStoreData.toString()));
+  }
+
+  @Test
+  void failureToSaveIsReported() {
+    final KeyStoreData keyStoreData =
+        encryptor.encryptWithSharedKdf(requests(1), PASSWORD, pbkdf2Param()).get(0);
+    final Path missingDirectory = tempDir.resolve("missing");
+    final Map<Path, KeyStoreData> keyStoreFiles =
+        Map.of(
+            missingDirectory.resolve("keystore1.json"),
+            keyStoreData,
+            missingDirectory.resolve("keystore2.json"),
+            keyStoreData);
+
+    assertThatThrownBy(() -> encryptor.saveToFiles(keyStoreFiles))
+        .isInstanceOf(IOException.class)
+        .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+  }
+
+  private Bytes countingGenerateDecryptionKey(final KdfParam kdfParam, final String password) {
+    derivations.incrementAndGet();
+    return kdfParam.generateDecryptionKey(password);
+  }
+
+  private static void assertDecryptsToRequestedKeys(
+      final List<KeyStoreData> keyStores, final List<EncryptionRequest> requests) {
+    assertThat(keyStores).hasSameSizeAs(requests);
+    for (int i = 0; i < keyStores.size(); i++) {
+      final KeyStoreData keyStoreData = keyStores.get(i);
+      assertThat(KeyStore.decrypt(PASSWORD, keyStoreData))
+          .isEqualTo(requests.get(i).getPrivateKey());
+      assertThat(keyStoreData.getPath()).isEqualTo(requests.get(i).getPath());
+    }
+  }
+
+  private static List<EncryptionRequest> requests(final int count) {
+    final List<EncryptionRequest> requests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      requests.add(new EncryptionRequest(Bytes32.random(), BLS_PUB_KEY, "m/12381/3600/" + i));
+    }
+    return requests;
+  }
+
+  private static KdfParam pbkdf2Param() {
+    return new Pbkdf2Param(32, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, Bytes32.random());
+  }
+}
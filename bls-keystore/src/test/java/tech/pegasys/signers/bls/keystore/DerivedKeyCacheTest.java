@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import tech.pegasys.signers.bls.keystore.model.Cipher;
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+class DerivedKeyCacheTest {
+  private static final String PASSWORD = "password";
+  private static final Bytes BLS_PRIVATE_KEY =
+      Bytes.fromHexString("000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f");
+  private static final Bytes BLS_PUB_KEY =
+      Bytes.fromHexString(
+          "9612d7a727c9d0a22e185a1c768478dfe919cada9266988cb32359c11f2b7b27f4ae4040902382ae2910c15e2b420d07");
+
+  @Test
+  void validateAndDecryptDeriveKeyOnce() {
+    final Pbkdf2Param kdfParam = spy(pbkdf2Param(Bytes32.random()));
+    final KeyStoreData keyStoreData = encrypt(kdfParam);
+    clearInvocations(kdfParam);
+
+    final DerivedKeyCache cache = new DerivedKeyCache(10);
+    assertThat(KeyStore.validatePassword(PASSWORD, keyStoreData, cache)).isTrue();
+    assertThat(KeyStore.decrypt(PASSWORD, keyStoreData, cache)).isEqualTo(BLS_PRIVATE_KEY);
+
+    verify(kdfParam, times(1)).generateDecryptionKey(PASSWORD);
+    assertThat(cache.size()).isOne();
+  }
+
+  @Test
+  void keyStoresSharingSaltAndPasswordShareDerivedKey() {
+    final Bytes32 salt = Bytes32.random();
+    final DerivedKeyCache cache = new DerivedKeyCache(10);
+
+    assertThat(KeyStore.decrypt(PASSWORD, encrypt(pbkdf2Param(salt)), cache))
+        .isEqualTo(BLS_PRIVATE_KEY);
+    assertThat(KeyStore.decrypt(PASSWORD, encrypt(pbkdf2Param(salt)), cache))
+        .isEqualTo(BLS_PRIVATE_KEY);
+
+    assertThat(cache.size()).isOne();
+  }
+
+  @Test
+  void differentPasswordsAreCachedSeparately() {
+    final KeyStoreData keyStoreData = encrypt(pbkdf2Param(Bytes32.random()));
+    final DerivedKeyCache cache = new DerivedKeyCache(10);
+
+    assertThat(KeyStore.validatePassword(PASSWORD, keyStoreData, cache)).isTrue();
+    assertThat(KeyStore.validatePassword("wrong", keyStoreData, cache)).isFalse();
+    assertThatThrownBy(() -> KeyStore.decrypt("wrong", keyStoreData, cache))
+        .isInstanceOf(KeyStoreValidationException.class)
+        .hasMessage("Failed to decrypt KeyStore, checksum validation failed.");
+
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void differentKdfParametersAreCachedSeparately() {
+    final Bytes32 salt = Bytes32.random();
+    final DerivedKeyCache cache = new DerivedKeyCache(10);
+
+    final Bytes twoIterations = cache.generateDecryptionKey(pbkdf2Param(salt), PASSWORD);
+    final Bytes threeIterations =
+        cache.generateDecryptionKey(
+            new Pbkdf2Param(32, 3, Pbkdf2PseudoRandomFunction.HMAC_SHA256, salt), PASSWORD);
+
+    assertThat(threeIterations).isNotEqualTo(twoIterations);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void returnedKeyIsNotZeroedWhenEntryIsEvicted() {
+    final Pbkdf2Param kdfParam = pbkdf2Param(Bytes32.random());
+    final DerivedKeyCache cache = new DerivedKeyCache(10);
+
+    final Bytes derivedKey = cache.generateDecryptionKey(kdfParam, PASSWORD);
+    cache.invalidateAll();
+
+    assertThat(derivedKey).isEqualTo(kdfParam.generateDecryptionKey(PASSWORD));
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void cacheSizeIsBounded() {
+    final DerivedKeyCache cache = new DerivedKeyCache(2);
+    for (int i = 0; i < 5; i++) {
+      cache.generateDecryptionKey(pbkdf2Param(Bytes32.random()), PASSWORD);
+    }
+
+    assertThat(cache.size()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void tryDecryptReturnsEmptyForInvalidPassword() {
+    final KeyStoreData keyStoreData = encrypt(pbkdf2Param(Bytes32.random()));
+
+    assertThat(KeyStore.tryDecrypt(PASSWORD, keyStoreData)).contains(BLS_PRIVATE_KEY);
+    assertThat(KeyStore.tryDecrypt("wrong", keyStoreData)).isEmpty();
+  }
+
+  private static Pbkdf2Param pbkdf2Param(final Bytes32 salt) {
+    return new Pbkdf2Param(32, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, salt);
+  }
+
+  private static KeyStoreData encrypt(final Pbkdf2Param kdfParam) {
+    return KeyStore.encrypt(
+        BLS_PRIVATE_KEY, BLS_PUB_KEY, PASSWORD, "", kdfParam, new Cipher(Bytes.random(16)));
+  }
+}
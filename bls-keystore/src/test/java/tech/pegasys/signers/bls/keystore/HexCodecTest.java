@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HexCodecTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 16, 32, 48, 1000})
+  void encodesSameHexAsBytes(final int size) {
+    final Bytes bytes = Bytes.random(size);
+
+    assertThat(new String(HexCodec.encode(bytes)))
+        .isEqualTo(bytes.appendHexTo(new StringBuilder()).toString());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "0x", "00", "0xff", "DEADbeef", "0x0123456789abcdefABCDEF"})
+  void decodesSameBytesAsFromHexString(final String hex) {
+    assertThat(Bytes.wrap(decode(hex, -1))).isEqualTo(Bytes.fromHexString(hex));
+  }
+
+  @Test
+  void decodesFromOffsetWithinBuffer() {
+    final char[] buffer = "\"0xcafe\",".toCharArray();
+
+    assertThat(HexCodec.decode(buffer, 1, 6)).containsExactly(0xca, 0xfe);
+  }
+
+  @Test
+  void decodesLeftPaddedToSize() {
+    assertThat(Bytes32.wrap(decode("0x0102", Bytes32.SIZE)))
+        .isEqualTo(Bytes32.fromHexString("0x0102"));
+  }
+
+  @Test
+  void oddLengthIsRejected() {
+    assertThatThrownBy(() -> decode("abc", -1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid odd-length hex binary representation");
+  }
+
+  @Test
+  void invalidCharacterIsRejected() {
+    assertThatThrownBy(() -> decode("0x00zz", -1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Illegal character 'z' found at index 2 in hex binary representation");
+    assertThatThrownBy(() -> decode("٠١", -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void valueLargerThanSizeIsRejected() {
+    assertThatThrownBy(() -> decode(Bytes.random(33).toHexString(), Bytes32.SIZE))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Hex value is too large: expected at most 32 bytes but got 33");
+  }
+
+  private static byte[] decode(final String hex, final int size) {
+    final char[] chars = hex.toCharArray();
+    return HexCodec.decode(chars, 0, chars.length, size);
+  }
+}
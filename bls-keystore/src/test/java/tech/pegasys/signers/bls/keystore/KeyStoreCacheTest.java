@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyStoreCacheTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void cachedKeyStoreIsReadAfterRestart() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path pbkdf2 = copyResource("pbkdf2TestVector.json", "pbkdf2.json");
+    final Path scrypt = copyResource("scryptTestVectorWithMissingPathAndUUID.json", "scrypt.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertSameKeyStoreData(cache.loadFromFile(pbkdf2), KeyStoreLoader.loadFromFile(pbkdf2));
+      assertSameKeyStoreData(cache.loadFromFile(scrypt), KeyStoreLoader.loadFromFile(scrypt));
+    }
+    final long cacheSize = Files.size(cacheFile);
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThat(cache.size()).isEqualTo(2);
+      assertSameKeyStoreData(cache.loadFromFile(pbkdf2), KeyStoreLoader.loadFromFile(pbkdf2));
+      assertSameKeyStoreData(cache.loadFromFile(scrypt), KeyStoreLoader.loadFromFile(scrypt));
+    }
+    // nothing was appended as both keystores were cached
+    assertThat(Files.size(cacheFile)).isEqualTo(cacheSize);
+  }
+
+  @Test
+  void changedKeyStoreIsReloaded() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      cache.loadFromFile(keyStore);
+      copyResource("scryptTestVector.json", "keystore.json");
+
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+    }
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThat(cache.size()).isOne();
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+    }
+  }
+
+  @Test
+  void touchedKeyStoreWithSameContentIsRecordedOnce() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      cache.loadFromFile(keyStore);
+      final long singleRecordSize = Files.size(cacheFile);
+      Files.setLastModifiedTime(
+          keyStore, FileTime.fromMillis(Files.getLastModifiedTime(keyStore).toMillis() + 10_000));
+
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+      final long touchedRecordSize = Files.size(cacheFile);
+      assertThat(touchedRecordSize).isGreaterThan(singleRecordSize);
+
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+      assertThat(Files.size(cacheFile)).isEqualTo(touchedRecordSize);
+    }
+  }
+
+  @Test
+  void keyStoreReplacedWithSameSizeAndTimestampIsReloaded() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      cache.loadFromFile(keyStore);
+      replacePreservingSizeAndTimestamp(keyStore);
+
+      assertThat(cache.loadFromFile(keyStore).getPath()).isEqualTo("m/12381/60/0/1");
+    }
+  }
+
+  @Test
+  void cacheTrustingFileAttributesDoesNotReadUnchangedKeyStore() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile, true)) {
+      cache.loadFromFile(keyStore);
+      replacePreservingSizeAndTimestamp(keyStore);
+
+      // the replaced content is not read, as its attributes match the record
+      assertThat(cache.loadFromFile(keyStore).getPath()).isEqualTo("m/12381/60/0/0");
+    }
+  }
+
+  @Test
+  void incompleteRecordIsDiscarded() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      cache.loadFromFile(keyStore);
+    }
+    final long cacheSize = Files.size(cacheFile);
+    Files.write(cacheFile, new byte[] {0, 0, 1, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThat(cache.size()).isOne();
+    }
+    assertThat(Files.size(cacheFile)).isEqualTo(cacheSize);
+  }
+
+  @Test
+  void unrecognisedCacheFileIsReplaced() throws Exception {
+    final Path cacheFile = Files.writeString(tempDir.resolve("keystores.cache"), "not a cache");
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThat(cache.size()).isZero();
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+    }
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThat(cache.size()).isOne();
+    }
+  }
+
+  @Test
+  void compactRemovesReplacedRecords() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = tempDir.resolve("keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      copyResource("scryptTestVector.json", "keystore.json");
+      cache.loadFromFile(keyStore);
+      final long singleRecordSize = Files.size(cacheFile);
+      copyResource("pbkdf2TestVector.json", "keystore.json");
+      cache.loadFromFile(keyStore);
+      copyResource("scryptTestVector.json", "keystore.json");
+      cache.loadFromFile(keyStore);
+
+      cache.compact();
+
+      assertThat(Files.size(cacheFile)).isEqualTo(singleRecordSize);
+      assertSameKeyStoreData(cache.loadFromFile(keyStore), KeyStoreLoader.loadFromFile(keyStore));
+      assertThat(Files.size(cacheFile)).isEqualTo(singleRecordSize);
+    }
+  }
+
+  @Test
+  void invalidKeyStoreIsNotCached() throws Exception {
+    final Path cacheFile = tempDir.resolve("keystores.cache");
+    final Path keyStore = copyResource("unsupportedDkLen.json", "keystore.json");
+
+    try (final KeyStoreCache cache = KeyStoreCache.open(cacheFile)) {
+      assertThatThrownBy(() -> cache.loadFromFile(keyStore))
+          .isInstanceOf(KeyStoreValidationException.class)
+          .hasMessage("Generated key length parameter dklen must be >= 32.");
+      assertThat(cache.size()).isZero();
+    }
+  }
+
+  private static void replacePreservingSizeAndTimestamp(final Path keyStore) throws IOException {
+    final FileTime modifiedTime = Files.getLastModifiedTime(keyStore);
+    Files.writeString(
+        keyStore, Files.readString(keyStore).replace("m/12381/60/0/0", "m/12381/60/0/1"));
+    Files.setLastModifiedTime(keyStore, modifiedTime);
+  }
+
+  private static void assertSameKeyStoreData(
+      final KeyStoreData actual, final KeyStoreData expected) {
+    assertThat(actual).hasToString(expected.toString());
+  }
+
+  private Path copyResource(final String resource, final String filename)
+      throws IOException, URISyntaxException {
+    final Path source = Path.of(Resources.getResource(resource).toURI());
+    return Files.copy(source, tempDir.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyStoreDirectoryLoaderTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void allKeyStoresInDirectoryAreLoaded() throws Exception {
+    final List<Path> keyStoreFiles = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      keyStoreFiles.add(copyResource("pbkdf2TestVector.json", "keystore" + i + ".json"));
+    }
+
+    final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+    try {
+      final KeyStoreLoadResults results =
+          new KeyStoreDirectoryLoader(forkJoinPool).loadFromDirectory(tempDir);
+
+      assertThat(results.getErrorCount()).isZero();
+      assertThat(results.getKeyStores()).containsOnlyKeys(keyStoreFiles);
+      assertThat(results.getKeyStores().values())
+          .allSatisfy(keyStoreData -> assertThat(keyStoreData.getVersion()).isEqualTo(4));
+    } finally {
+      forkJoinPool.shutdown();
+    }
+  }
+
+  @Test
+  void invalidKeyStoresAreReportedPerFile() throws Exception {
+    final Path pbkdf2 = copyResource("pbkdf2TestVector.json", "pbkdf2.json");
+    final Path scrypt = copyResource("scryptTestVector.json", "scrypt.json");
+    final Path unsupportedCipher =
+        copyResource("unsupportedCipherFunction.json", "unsupportedCipher.json");
+    final Path invalidJson = Files.writeString(tempDir.resolve("invalid.json"), "{");
+
+    final KeyStoreLoadResults results = new KeyStoreDirectoryLoader().loadFromDirectory(tempDir);
+
+    assertThat(results.getKeyStores()).containsOnlyKeys(pbkdf2, scrypt);
+    assertThat(results.getErrors()).containsOnlyKeys(unsupportedCipher, invalidJson);
+    assertThat(results.getErrors())
+        .containsEntry(unsupportedCipher, "Cipher function [aes-256-ctr] is not supported.");
+    assertThat(results.getErrors().get(invalidJson)).startsWith("Invalid KeyStore: ");
+  }
+
+  @Test
+  void filesNotMatchingGlobAndSubdirectoriesAreIgnored() throws Exception {
+    final Path keyStore = copyResource("pbkdf2TestVector.json", "keystore.json");
+    Files.writeString(tempDir.resolve("keystore.txt"), "password");
+    Files.createDirectory(tempDir.resolve("subdir.json"));
+
+    final KeyStoreLoadResults results = new KeyStoreDirectoryLoader().loadFromDirectory(tempDir);
+
+    assertThat(results.getKeyStores()).containsOnlyKeys(keyStore);
+    assertThat(results.getErrorCount()).isZero();
+  }
+
+  @Test
+  void missingDirectoryThrowsError() {
+    final Path directory = tempDir.resolve("missing");
+
+    assertThatThrownBy(() -> new KeyStoreDirectoryLoader().loadFromDirectory(directory))
+        .isInstanceOf(KeyStoreValidationException.class)
+        .hasMessage("Unable to read KeyStore directory: " + directory);
+  }
+
+  private Path copyResource(final String resource, final String filename)
+      throws IOException, URISyntaxException {
+    final Path source = Path.of(Resources.getResource(resource).toURI());
+    return Files.copy(source, tempDir.resolve(filename));
+  }
+}
@@ -26,7 +26,9 @@ import tech.pegasys.signers.bls.keystore.model.SCryptParam;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.google.common.io.Resources;
@@ -224,6 +226,22 @@ class KeyStoreTest {
     encryptSaveAndReloadKeyStore(tempDir, kdfParam);
   }
 
+  @Test
+  void concurrentEncryptionAndDecryptionRoundTrip() {
+    final KdfParam kdfParam =
+        new Pbkdf2Param(DKLEN, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, SALT);
+    final List<Bytes> privateKeys =
+        IntStream.range(0, 64).mapToObj(i -> Bytes32.random()).collect(Collectors.toList());
+
+    final List<Bytes> decryptedKeys =
+        privateKeys.parallelStream()
+            .map(key -> KeyStore.encrypt(key, BLS_PUB_KEY, PASSWORD, "", kdfParam, CIPHER))
+            .map(keyStoreData -> KeyStore.decrypt(PASSWORD, keyStoreData))
+            .collect(Collectors.toList());
+
+    assertThat(decryptedKeys).isEqualTo(privateKeys);
+  }
+
   private void encryptSaveAndReloadKeyStore(final Path tempDir, final KdfParam kdfParam)
       throws IOException {
     final KeyStoreData keyStoreData =
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2Param;
+import tech.pegasys.signers.bls.keystore.model.Pbkdf2PseudoRandomFunction;
+import tech.pegasys.signers.bls.keystore.model.SCryptParam;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+class ScryptMemorySchedulerTest {
+  private static final String PASSWORD = "password";
+  private static final long MEMORY_PER_DERIVATION = 128L * 8 * (1024 + 1 + 2);
+
+  @Test
+  void requiredMemoryIsBasedOnScryptParameters() {
+    final SCryptParam defaultParam = new SCryptParam(32, Bytes32.random());
+
+    assertThat(ScryptMemoryScheduler.requiredMemoryBytes(defaultParam))
+        .isEqualTo(128L * 8 * (262_144 + 1 + 2));
+  }
+
+  @Test
+  void scryptDerivationMatchesUnscheduledDerivation() {
+    final SCryptParam param = new SCryptParam(32, 1024, 1, 8, Bytes32.random());
+    final ScryptMemoryScheduler scheduler = new ScryptMemoryScheduler(MEMORY_PER_DERIVATION);
+
+    assertThat(scheduler.generateDecryptionKey(param, PASSWORD))
+        .isEqualTo(param.generateDecryptionKey(PASSWORD));
+    assertThat(scheduler.getCompletedDerivations()).isOne();
+    assertThat(scheduler.getAvailableMemoryBytes()).isEqualTo(MEMORY_PER_DERIVATION);
+  }
+
+  @Test
+  void otherKdfsAreNotScheduled() {
+    final Pbkdf2Param param =
+        new Pbkdf2Param(32, 2, Pbkdf2PseudoRandomFunction.HMAC_SHA256, Bytes32.random());
+    final ScryptMemoryScheduler scheduler = new ScryptMemoryScheduler(1024);
+
+    assertThat(scheduler.generateDecryptionKey(param, PASSWORD))
+        .isEqualTo(param.generateDecryptionKey(PASSWORD));
+    assertThat(scheduler.getCompletedDerivations()).isZero();
+  }
+
+  @Test
+  void derivationLargerThanBudgetIsAdmittedAlone() {
+    final SCryptParam param = new SCryptParam(32, 1024, 1, 8, Bytes32.random());
+    final ScryptMemoryScheduler scheduler = new ScryptMemoryScheduler(1024);
+
+    assertThat(scheduler.generateDecryptionKey(param, PASSWORD))
+        .isEqualTo(param.generateDecryptionKey(PASSWORD));
+    assertThat(scheduler.getAvailableMemoryBytes()).isEqualTo(1024);
+  }
+
+  @Test
+  void derivationsWaitForMemoryToBeReleased() {
+    final CountDownLatch firstDerivationBlocked = new CountDownLatch(1);
+    final SCryptParam blockingParam = blockingScryptParam(firstDerivationBlocked);
+    final ScryptMemoryScheduler scheduler =
+        new ScryptMemoryScheduler(MEMORY_PER_DERIVATION + MEMORY_PER_DERIVATION / 2);
+
+    final CompletableFuture<Bytes> first =
+        CompletableFuture.supplyAsync(
+            () -> scheduler.generateDecryptionKey(blockingParam, PASSWORD));
+    await().until(() -> scheduler.getActiveDerivations() == 1);
+    final CompletableFuture<Bytes> second =
+        CompletableFuture.supplyAsync(
+            () -> scheduler.generateDecryptionKey(blockingParam, PASSWORD));
+    await().until(() -> scheduler.getQueueDepth() == 1);
+    assertThat(scheduler.getActiveDerivations()).isOne();
+
+    firstDerivationBlocked.countDown();
+
+    assertThat(first.join()).isEqualTo(Bytes32.ZERO);
+    assertThat(second.join()).isEqualTo(Bytes32.ZERO);
+    assertThat(scheduler.getQueueDepth()).isZero();
+    assertThat(scheduler.getCompletedDerivations()).isEqualTo(2);
+    assertThat(scheduler.getMaxWaitTime()).isPositive();
+    assertThat(scheduler.getTotalWaitTime()).isGreaterThanOrEqualTo(scheduler.getMaxWaitTime());
+  }
+
+  private static SCryptParam blockingScryptParam(final CountDownLatch latch) {
+    final SCryptParam param = mock(SCryptParam.class);
+    when(param.getN()).thenReturn(1024);
+    when(param.getR()).thenReturn(8);
+    when(param.getP()).thenReturn(1);
+    when(param.generateDecryptionKey(PASSWORD))
+        .thenAnswer(
+            invocation -> {
+              latch.await();
+              return Bytes32.ZERO;
+            });
+    return param;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.signers.bls.keystore.model.KeyStoreData;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StreamingKeyStoreParserTest {
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper()
+          .registerModule(new KeyStoreBytesModule())
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "pbkdf2TestVector.json",
+        "scryptTestVector.json",
+        "scryptExtraFieldTestVector.json",
+        "scryptTestVectorWithMissingPathAndUUID.json",
+        "v3TestVector.json",
+        "unsupportedDkLen.json"
+      })
+  void decodesSameKeyStoreDataAsObjectMapper(final String resource) throws IOException {
+    final String json = readResource(resource);
+    final KeyStoreData expected = OBJECT_MAPPER.readValue(json, KeyStoreData.class);
+
+    final Optional<KeyStoreData> fromString = StreamingKeyStoreParser.parse(json);
+    final Optional<KeyStoreData> fromBytes =
+        StreamingKeyStoreParser.parse(json.getBytes(StandardCharsets.UTF_8));
+
+    assertThat(fromString).hasValueSatisfying(actual -> assertSameKeyStoreData(actual, expected));
+    assertThat(fromBytes).hasValueSatisfying(actual -> assertSameKeyStoreData(actual, expected));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "missingKdfSectionTestVector.json",
+        "unsupportedChecksumFunction.json",
+        "unsupportedCipherFunction.json",
+        "unsupportedKdfFunction.json",
+        "unsupportedPBKDF2Prf.json"
+      })
+  void unsupportedKeyStoresAreLeftToObjectMapper(final String resource) throws IOException {
+    assertThat(StreamingKeyStoreParser.parse(readResource(resource))).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "[]",
+        "{",
+        "{\"version\": \"4\"}",
+        "{\"pubkey\": \"abc\"}",
+        "{\"pubkey\": \"zz\"}",
+        "{\"uuid\": \"64625def33314eeaab6f782f3ed16a83\"}"
+      })
+  void unexpectedInputIsLeftToObjectMapper(final String json) {
+    assertThat(StreamingKeyStoreParser.parse(json)).isEmpty();
+  }
+
+  private static void assertSameKeyStoreData(
+      final KeyStoreData actual, final KeyStoreData expected) {
+    assertThat(actual).hasToString(expected.toString());
+    assertThat(actual.getCrypto().getKdf().getParam())
+        .isExactlyInstanceOf(expected.getCrypto().getKdf().getParam().getClass());
+  }
+
+  private static String readResource(final String resource) throws IOException {
+    return Resources.toString(Resources.getResource(resource), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.bls.keystore.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class Pbkdf2EnginesTest {
+
+  @Test
+  void availableEnginesPassKnownAnswerTests() {
+    assertThat(Pbkdf2Engines.passesKnownAnswerTests(Pbkdf2Engines.bouncyCastle())).isTrue();
+    Pbkdf2Engines.jca()
+        .ifPresent(engine -> assertThat(Pbkdf2Engines.passesKnownAnswerTests(engine)).isTrue());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "password", "testpassword\uD83D\uDD11", "\u00e9t\u00e9"})
+  void jcaEngineMatchesBouncyCastle(final String password) {
+    final Bytes passwordBytes = Bytes.wrap(password.getBytes(UTF_8));
+    final Bytes32 salt = Bytes32.random();
+
+    Pbkdf2Engines.jca()
+        .ifPresent(
+            engine ->
+                assertThat(engine.deriveKey(passwordBytes, salt, 3, 48))
+                    .isEqualTo(Pbkdf2Engines.bouncyCastle().deriveKey(passwordBytes, salt, 3, 48)));
+  }
+
+  @Test
+  void jcaEngineMatchesBouncyCastleForPasswordWhichIsNotUtf8() {
+    final Bytes password = Bytes.fromHexString("0xc3ff00");
+    // a non-empty salt, so the password rather than the salt decides the fallback
+    final Bytes32 salt = Bytes32.random();
+
+    Pbkdf2Engines.jca()
+        .ifPresent(
+            engine ->
+                assertThat(engine.deriveKey(password, salt, 2, 32))
+                    .isEqualTo(Pbkdf2Engines.bouncyCastle().deriveKey(password, salt, 2, 32)));
+  }
+
+  @Test
+  void engineFailingKnownAnswerTestsIsNotSelected() {
+    final Pbkdf2Engine broken = new ConstantPbkdf2Engine();
+
+    assertThat(Pbkdf2Engines.passesKnownAnswerTests(broken)).isFalse();
+    assertThat(Pbkdf2Engines.select(List.of(broken))).isSameAs(Pbkdf2Engines.bouncyCastle());
+  }
+
+  @Test
+  void defaultEnginePassesKnownAnswerTests() {
+    assertThat(Pbkdf2Engines.passesKnownAnswerTests(Pbkdf2Engines.getDefault())).isTrue();
+  }
+
+  private static class ConstantPbkdf2Engine implements Pbkdf2Engine {
+    @Override
+    public String getName() {
+      return "constant";
+    }
+
+    @Override
+    public Bytes deriveKey(
+        final Bytes password, final Bytes salt, final int iterations, final int keyLength) {
+      return Bytes.wrap(new byte[keyLength]);
+    }
+  }
+}
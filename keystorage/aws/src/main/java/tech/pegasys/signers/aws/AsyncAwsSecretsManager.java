@@ -0,0 +1,263 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static tech.pegasys.signers.common.SecretValueMapperUtil.mapSecretValue;
+
+import tech.pegasys.signers.common.MappedResults;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClientBuilder;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
+
+/**
+ * Non-blocking counterpart of {@link AwsSecretsManager}. Secret values are fetched with at most
+ * {@code maxConcurrentRequests} requests in flight, and the next page of the secret listing is
+ * requested while values of the current page are still being fetched.
+ */
+public class AsyncAwsSecretsManager implements Closeable {
+
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 50;
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final SecretsManagerAsyncClient secretsManagerAsyncClient;
+  private final int maxConcurrentRequests;
+
+  AsyncAwsSecretsManager(
+      final SecretsManagerAsyncClient secretsManagerAsyncClient, final int maxConcurrentRequests) {
+    checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+    this.secretsManagerAsyncClient = secretsManagerAsyncClient;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  public static AsyncAwsSecretsManager createAsyncAwsSecretsManager(
+      final String accessKeyId,
+      final String secretAccessKey,
+      final String region,
+      final Optional<URI> awsEndpointURI,
+      final int maxConcurrentRequests) {
+    final AwsBasicCredentials awsBasicCredentials =
+        AwsBasicCredentials.create(accessKeyId, secretAccessKey);
+    final SecretsManagerAsyncClientBuilder builder =
+        asyncClientBuilder(awsEndpointURI, maxConcurrentRequests)
+            .credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials))
+            .region(Region.of(region));
+
+    return new AsyncAwsSecretsManager(builder.build(), maxConcurrentRequests);
+  }
+
+  public static AsyncAwsSecretsManager createAsyncAwsSecretsManager(
+      final Optional<URI> awsEndpointURI, final int maxConcurrentRequests) {
+    final SecretsManagerAsyncClientBuilder builder =
+        asyncClientBuilder(awsEndpointURI, maxConcurrentRequests);
+
+    return new AsyncAwsSecretsManager(builder.build(), maxConcurrentRequests);
+  }
+
+  private static SecretsManagerAsyncClientBuilder asyncClientBuilder(
+      final Optional<URI> awsEndpointURI, final int maxConcurrentRequests) {
+    checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+    // the http client must allow at least as many connections as requests we keep in flight,
+    // otherwise requests queue up inside the SDK and may time out acquiring a connection
+    final SecretsManagerAsyncClientBuilder builder =
+        SecretsManagerAsyncClient.builder()
+            .httpClientBuilder(
+                NettyNioAsyncHttpClient.builder().maxConcurrency(maxConcurrentRequests));
+    awsEndpointURI.ifPresent(builder::endpointOverride);
+    return builder;
+  }
+
+  /**
+   * Bulk load secrets without blocking the calling thread.
+   *
+   * @param namePrefixes Collection of name prefixes to filter.
+   * @param tagKeys Collection of tags names to filter
+   * @param tagValues Collection of tag values to filter
+   * @param mapper The mapper function that can convert secret value to appropriate type
+   * @return Future completing with the collection of secret values and error count if any. The
+   *     future never completes exceptionally, failures are reflected in the error count.
+   */
+  public <R> CompletableFuture<MappedResults<R>> mapSecrets(
+      final Collection<String> namePrefixes,
+      final Collection<String> tagKeys,
+      final Collection<String> tagValues,
+      final BiFunction<String, String, R> mapper) {
+    final MapSecretsOperation<R> operation =
+        new MapSecretsOperation<>(listSecretsRequest(namePrefixes, tagKeys, tagValues), mapper);
+    operation.start();
+    return operation.getResultFuture();
+  }
+
+  private static ListSecretsRequest listSecretsRequest(
+      final Collection<String> namePrefixes,
+      final Collection<String> tagKeys,
+      final Collection<String> tagValues) {
+    return ListSecretsRequest.builder()
+        .filters(SecretListFilters.of(namePrefixes, tagKeys, tagValues))
+        .build();
+  }
+
+  @Override
+  public void close() {
+    secretsManagerAsyncClient.close();
+  }
+
+  private class MapSecretsOperation<R> {
+    private final ListSecretsRequest listSecretsRequest;
+    private final BiFunction<String, String, R> mapper;
+    private final CompletableFuture<MappedResults<R>> resultFuture = new CompletableFuture<>();
+    private final Set<R> result = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger errorCount = new AtomicInteger(0);
+    private final Queue<String> pendingSecretNames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlightRequests = new AtomicInteger(0);
+    // serialises drain() without locking; callbacks completing inline re-enter as a missed drain
+    private final AtomicInteger drainRequests = new AtomicInteger(0);
+    private volatile boolean listingComplete = false;
+
+    MapSecretsOperation(
+        final ListSecretsRequest listSecretsRequest, final BiFunction<String, String, R> mapper) {
+      this.listSecretsRequest = listSecretsRequest;
+      this.mapper = mapper;
+    }
+
+    CompletableFuture<MappedResults<R>> getResultFuture() {
+      return resultFuture;
+    }
+
+    void start() {
+      listPage(listSecretsRequest);
+    }
+
+    private void listPage(final ListSecretsRequest request) {
+      try {
+        secretsManagerAsyncClient.listSecrets(request).whenComplete(this::onPageListed);
+      } catch (final RuntimeException e) {
+        onPageListed(null, e);
+      }
+    }
+
+    private void onPageListed(final ListSecretsResponse response, final Throwable error) {
+      if (error != null) {
+        LOG.warn("Unexpected error during AWS list-secrets operation", unwrap(error));
+        errorCount.incrementAndGet();
+        listingComplete = true;
+      } else {
+        response.secretList().stream().map(SecretListEntry::name).forEach(pendingSecretNames::add);
+        if (response.nextToken() == null) {
+          listingComplete = true;
+        } else {
+          listPage(listSecretsRequest.toBuilder().nextToken(response.nextToken()).build());
+        }
+      }
+      drain();
+    }
+
+    private void drain() {
+      if (drainRequests.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        while (inFlightRequests.get() < maxConcurrentRequests) {
+          final String secretName = pendingSecretNames.poll();
+          if (secretName == null) {
+            break;
+          }
+          inFlightRequests.incrementAndGet();
+          fetchSecret(secretName);
+        }
+        if (listingComplete && inFlightRequests.get() == 0 && pendingSecretNames.isEmpty()) {
+          resultFuture.complete(MappedResults.newInstance(result, errorCount.intValue()));
+        }
+        missed = drainRequests.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void fetchSecret(final String secretName) {
+      final GetSecretValueRequest request =
+          GetSecretValueRequest.builder().secretId(secretName).build();
+      try {
+        secretsManagerAsyncClient
+            .getSecretValue(request)
+            .whenComplete((response, error) -> onSecretFetched(secretName, response, error));
+      } catch (final RuntimeException e) {
+        onSecretFetched(secretName, null, e);
+      }
+    }
+
+    private void onSecretFetched(
+        final String secretName, final GetSecretValueResponse response, final Throwable error) {
+      try {
+        if (error != null) {
+          final Throwable cause = unwrap(error);
+          if (cause instanceof ResourceNotFoundException) {
+            LOG.warn("Failed to fetch secret name '{}', and was discarded", secretName);
+          } else {
+            LOG.warn(
+                "Failed to fetch secret '{}' from AWS Secrets Manager due to: {}.",
+                secretName,
+                cause.getMessage());
+          }
+          errorCount.incrementAndGet();
+        } else {
+          final MappedResults<R> multiResult =
+              mapSecretValue(mapper, secretName, response.secretString());
+          result.addAll(multiResult.getValues());
+          errorCount.addAndGet(multiResult.getErrorCount());
+        }
+      } catch (final Exception e) {
+        LOG.warn(
+            "Failed to map secret '{}' to requested object type due to: {}.",
+            secretName,
+            e.getMessage());
+        errorCount.incrementAndGet();
+      } finally {
+        inFlightRequests.decrementAndGet();
+        drain();
+      }
+    }
+
+    private Throwable unwrap(final Throwable error) {
+      if (error instanceof CompletionException && error.getCause() != null) {
+        return error.getCause();
+      }
+      return error;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+
+/**
+ * Cache of secret values keyed by secret name. Once an entry is older than the configured time to
+ * live, the next read triggers a background refresh and is answered with the cached value. The
+ * refresh only looks up the current version id of the secret, and the secret value is fetched again
+ * only if that version differs from the cached one.
+ *
+ * <p>Looking up the version id requires the {@code secretsmanager:DescribeSecret} permission as
+ * well as {@code secretsmanager:GetSecretValue}. Without it, refreshes fall back to fetching the
+ * secret value and comparing its version id. An entry which cannot be refreshed at all is evicted
+ * once it reaches the configured maximum age.
+ */
+public class AwsSecretValueCache {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String CURRENT_VERSION_STAGE = "AWSCURRENT";
+
+  private final SecretsManagerClient secretsManagerClient;
+  private final ExecutorService refreshExecutor;
+  private final LoadingCache<String, CachedSecretValue> cache;
+  private final AtomicLong refreshCount = new AtomicLong();
+  private final AtomicLong unchangedRefreshCount = new AtomicLong();
+
+  AwsSecretValueCache(
+      final SecretsManagerClient secretsManagerClient, final AwsSecretValueCacheSettings settings) {
+    this(
+        secretsManagerClient,
+        settings,
+        Ticker.systemTicker(),
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("aws-secret-value-refresh-%d")
+                .setDaemon(true)
+                .build()));
+  }
+
+  AwsSecretValueCache(
+      final SecretsManagerClient secretsManagerClient,
+      final AwsSecretValueCacheSettings settings,
+      final Ticker ticker,
+      final ExecutorService refreshExecutor) {
+    this.secretsManagerClient = secretsManagerClient;
+    this.refreshExecutor = refreshExecutor;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .refreshAfterWrite(settings.getTimeToLive())
+            .expireAfterWrite(settings.getMaximumAge())
+            .ticker(ticker)
+            .recordStats()
+            .build(CacheLoader.asyncReloading(new SecretValueLoader(), refreshExecutor));
+  }
+
+  /**
+   * Fetch secret value from cache, loading it from AWS Secrets Manager if it is not cached.
+   *
+   * @param secretName Secret Name
+   * @return Optional with secret value. Empty if secret name doesn't exist.
+   * @throws RuntimeException if AWS SDK throws SecretsManagerException.
+   */
+  public Optional<String> get(final String secretName) {
+    try {
+      return cache.getUnchecked(secretName).getSecretValue();
+    } catch (final UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /** @return Number of refreshes of expired entries, including those which found no new version. */
+  public long getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  /** @return Number of refreshes which kept the cached value as its version was unchanged. */
+  public long getUnchangedRefreshCount() {
+    return unchangedRefreshCount.get();
+  }
+
+  void close() {
+    refreshExecutor.shutdownNow();
+    cache.invalidateAll();
+  }
+
+  private Optional<String> currentVersionId(final String secretName) {
+    try {
+      final Map<String, List<String>> versionIdsToStages =
+          secretsManagerClient
+              .describeSecret(DescribeSecretRequest.builder().secretId(secretName).build())
+              .versionIdsToStages();
+      return versionIdsToStages.entrySet().stream()
+          .filter(entry -> entry.getValue().contains(CURRENT_VERSION_STAGE))
+          .map(Map.Entry::getKey)
+          .findFirst();
+    } catch (final ResourceNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  private CachedSecretValue fetchSecretValue(final String secretName) {
+    try {
+      final GetSecretValueResponse valueResponse =
+          secretsManagerClient.getSecretValue(
+              GetSecretValueRequest.builder().secretId(secretName).build());
+      return new CachedSecretValue(
+          Optional.ofNullable(valueResponse.secretString()),
+          Optional.ofNullable(valueResponse.versionId()));
+    } catch (final ResourceNotFoundException e) {
+      return CachedSecretValue.NOT_FOUND;
+    } catch (final SecretsManagerException e) {
+      throw new RuntimeException(
+          "Failed to fetch secret from AWS Secrets Manager: " + e.getMessage(), e);
+    }
+  }
+
+  private class SecretValueLoader extends CacheLoader<String, CachedSecretValue> {
+    @Override
+    public CachedSecretValue load(final String secretName) {
+      return fetchSecretValue(secretName);
+    }
+
+    @Override
+    public CachedSecretValue reload(final String secretName, final CachedSecretValue oldValue) {
+      refreshCount.incrementAndGet();
+      final Optional<String> currentVersionId;
+      try {
+        currentVersionId = currentVersionId(secretName);
+      } catch (final SdkException e) {
+        LOG.debug("Unable to describe secret {}, fetching its value to refresh", secretName, e);
+        return unchangedOrFetched(oldValue, fetchSecretValue(secretName));
+      }
+      if (currentVersionId.equals(oldValue.getVersionId())) {
+        unchangedRefreshCount.incrementAndGet();
+        return oldValue;
+      }
+      return fetchSecretValue(secretName);
+    }
+
+    private CachedSecretValue unchangedOrFetched(
+        final CachedSecretValue oldValue, final CachedSecretValue fetchedValue) {
+      if (oldValue.getVersionId().isPresent()
+          && oldValue.getVersionId().equals(fetchedValue.getVersionId())) {
+        unchangedRefreshCount.incrementAndGet();
+        return oldValue;
+      }
+      return fetchedValue;
+    }
+  }
+
+  private static class CachedSecretValue {
+    static final CachedSecretValue NOT_FOUND =
+        new CachedSecretValue(Optional.empty(), Optional.empty());
+
+    private final Optional<String> secretValue;
+    private final Optional<String> versionId;
+
+    CachedSecretValue(final Optional<String> secretValue, final Optional<String> versionId) {
+      this.secretValue = secretValue;
+      this.versionId = versionId;
+    }
+
+    Optional<String> getSecretValue() {
+      return secretValue;
+    }
+
+    Optional<String> getVersionId() {
+      return versionId;
+    }
+  }
+}
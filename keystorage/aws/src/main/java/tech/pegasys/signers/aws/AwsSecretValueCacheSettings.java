@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.Duration;
+
+public class AwsSecretValueCacheSettings {
+  private static final int DEFAULT_MAXIMUM_AGE_MULTIPLIER = 5;
+
+  private final long maximumSize;
+  private final Duration timeToLive;
+  private final Duration maximumAge;
+
+  /**
+   * Settings with a maximum age of five times the time to live.
+   *
+   * @see #AwsSecretValueCacheSettings(long, Duration, Duration)
+   */
+  public AwsSecretValueCacheSettings(final long maximumSize, final Duration timeToLive) {
+    this(
+        maximumSize,
+        timeToLive,
+        checkNotNull(timeToLive, "timeToLive must be specified")
+            .multipliedBy(DEFAULT_MAXIMUM_AGE_MULTIPLIER));
+  }
+
+  /**
+   * @param maximumSize Maximum number of secret values to cache
+   * @param timeToLive Age after which a cached value is refreshed on its next read. The cached
+   *     value keeps being served until the refresh completes.
+   * @param maximumAge Age after which a cached value is no longer served if it could not be
+   *     refreshed, and is fetched again on its next read
+   */
+  public AwsSecretValueCacheSettings(
+      final long maximumSize, final Duration timeToLive, final Duration maximumAge) {
+    checkArgument(maximumSize > 0, "maximumSize must be positive");
+    checkNotNull(timeToLive, "timeToLive must be specified");
+    checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive must be positive");
+    checkNotNull(maximumAge, "maximumAge must be specified");
+    checkArgument(
+        maximumAge.compareTo(timeToLive) >= 0, "maximumAge must not be less than timeToLive");
+    this.maximumSize = maximumSize;
+    this.timeToLive = timeToLive;
+    this.maximumAge = maximumAge;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  public Duration getMaximumAge() {
+    return maximumAge;
+  }
+}
@@ -18,39 +18,55 @@ import tech.pegasys.signers.common.MappedResults;
 
 import java.io.Closeable;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClientBuilder;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueResponse;
 import software.amazon.awssdk.services.secretsmanager.model.Filter;
-import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
 import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
 import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
 import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
 import software.amazon.awssdk.services.secretsmanager.paginators.ListSecretsIterable;
 
 public class AwsSecretsManager implements Closeable {
 
   private static final Logger LOG = LogManager.getLogger();
+  private static final int MAX_BATCH_GET_SECRET_VALUES = 20;
 
   private final SecretsManagerClient secretsManagerClient;
+  private final Optional<AwsSecretValueCache> secretValueCache;
 
-  private AwsSecretsManager(final SecretsManagerClient secretsManagerClient) {
+  AwsSecretsManager(final SecretsManagerClient secretsManagerClient) {
+    this(secretsManagerClient, Optional.empty());
+  }
+
+  AwsSecretsManager(
+      final SecretsManagerClient secretsManagerClient,
+      final Optional<AwsSecretValueCacheSettings> secretValueCacheSettings) {
     this.secretsManagerClient = secretsManagerClient;
+    this.secretValueCache =
+        secretValueCacheSettings.map(
+            settings -> new AwsSecretValueCache(secretsManagerClient, settings));
   }
 
   static AwsSecretsManager createAwsSecretsManager(
@@ -58,6 +74,16 @@ public class AwsSecretsManager implements Closeable {
       final String secretAccessKey,
       final String region,
       final Optional<URI> awsEndpointURI) {
+    return createAwsSecretsManager(
+        accessKeyId, secretAccessKey, region, awsEndpointURI, Optional.empty());
+  }
+
+  static AwsSecretsManager createAwsSecretsManager(
+      final String accessKeyId,
+      final String secretAccessKey,
+      final String region,
+      final Optional<URI> awsEndpointURI,
+      final Optional<AwsSecretValueCacheSettings> secretValueCacheSettings) {
     final AwsBasicCredentials awsBasicCredentials =
         AwsBasicCredentials.create(accessKeyId, secretAccessKey);
     final StaticCredentialsProvider credentialsProvider =
@@ -72,15 +98,26 @@ public class AwsSecretsManager implements Closeable {
 
     final SecretsManagerClient secretsManagerClient = builder.build();
 
-    return new AwsSecretsManager(secretsManagerClient);
+    return new AwsSecretsManager(secretsManagerClient, secretValueCacheSettings);
   }
 
   static AwsSecretsManager createAwsSecretsManager(final Optional<URI> awsEndpointURI) {
+    return createAwsSecretsManager(awsEndpointURI, Optional.empty());
+  }
+
+  static AwsSecretsManager createAwsSecretsManager(
+      final Optional<URI> awsEndpointURI,
+      final Optional<AwsSecretValueCacheSettings> secretValueCacheSettings) {
     final SecretsManagerClientBuilder builder = SecretsManagerClient.builder();
     awsEndpointURI.ifPresent(builder::endpointOverride);
     final SecretsManagerClient secretsManagerClient = builder.build();
 
-    return new AwsSecretsManager(secretsManagerClient);
+    return new AwsSecretsManager(secretsManagerClient, secretValueCacheSettings);
+  }
+
+  /** @return The secret value cache used by fetchSecret, if it was enabled. */
+  public Optional<AwsSecretValueCache> getSecretValueCache() {
+    return secretValueCache;
   }
 
   /**
@@ -91,6 +128,9 @@ public class AwsSecretsManager implements Closeable {
    * @throws RuntimeException if AWS SDK throws SecretsManagerException.
    */
   public Optional<String> fetchSecret(final String secretName) {
+    if (secretValueCache.isPresent()) {
+      return secretValueCache.get().get(secretName);
+    }
     try {
       final GetSecretValueRequest getSecretValueRequest =
           GetSecretValueRequest.builder().secretId(secretName).build();
@@ -105,23 +145,9 @@ public class AwsSecretsManager implements Closeable {
     }
   }
 
-  private ListSecretsIterable listSecrets(
-      final Collection<String> namePrefixes,
-      final Collection<String> tagKeys,
-      final Collection<String> tagValues) {
-    final ListSecretsRequest.Builder listSecretsRequestBuilder = ListSecretsRequest.builder();
-    final List<Filter> filters = new ArrayList<>();
-    if (!namePrefixes.isEmpty()) {
-      filters.add(Filter.builder().key(FilterNameStringType.NAME).values(namePrefixes).build());
-    }
-    if (!tagKeys.isEmpty()) {
-      filters.add(Filter.builder().key(FilterNameStringType.TAG_KEY).values(tagKeys).build());
-    }
-    if (!tagValues.isEmpty()) {
-      filters.add(Filter.builder().key(FilterNameStringType.TAG_VALUE).values(tagValues).build());
-    }
+  private ListSecretsIterable listSecrets(final List<Filter> filters) {
     return secretsManagerClient.listSecretsPaginator(
-        listSecretsRequestBuilder.filters(filters).build());
+        ListSecretsRequest.builder().filters(filters).build());
   }
 
   /**
@@ -141,7 +167,7 @@ public class AwsSecretsManager implements Closeable {
     final Set<R> result = ConcurrentHashMap.newKeySet();
     final AtomicInteger errorCount = new AtomicInteger(0);
     try {
-      listSecrets(namePrefixes, tagKeys, tagValues)
+      listSecrets(SecretListFilters.of(namePrefixes, tagKeys, tagValues))
           .iterator()
           .forEachRemaining(
               listSecretsResponse ->
@@ -151,18 +177,12 @@ public class AwsSecretsManager implements Closeable {
                       .forEach(
                           secretEntry -> {
                             try {
-                              final Optional<String> secretValue = fetchSecret(secretEntry.name());
-                              if (secretValue.isEmpty()) {
-                                LOG.warn(
-                                    "Failed to fetch secret name '{}', and was discarded",
-                                    secretEntry.name());
-                                errorCount.incrementAndGet();
-                              } else {
-                                MappedResults<R> multiResult =
-                                    mapSecretValue(mapper, secretEntry.name(), secretValue.get());
-                                result.addAll(multiResult.getValues());
-                                errorCount.addAndGet(multiResult.getErrorCount());
-                              }
+                              mapSecret(
+                                  secretEntry.name(),
+                                  fetchSecret(secretEntry.name()),
+                                  mapper,
+                                  result,
+                                  errorCount);
                             } catch (final Exception e) {
                               LOG.warn(
                                   "Failed to map secret '{}' to requested object type due to: {}.",
@@ -178,8 +198,178 @@ public class AwsSecretsManager implements Closeable {
     return MappedResults.newInstance(result, errorCount.intValue());
   }
 
+  /**
+   * Bulk load secrets using BatchGetSecretValue, which returns up to 20 secret values per request
+   * rather than requiring a GetSecretValue request per listed secret. If a page of filtered secrets
+   * cannot be fetched, the secrets not yet fetched are listed and fetched by id instead.
+   *
+   * @param namePrefixes Collection of name prefixes to filter.
+   * @param tagKeys Collection of tags names to filter
+   * @param tagValues Collection of tag values to filter
+   * @param mapper The mapper function that can convert secret value to appropriate type
+   * @return SecretValueResult with collection of secret values and error count if any.
+   */
+  public <R> MappedResults<R> mapSecretsInBatches(
+      final Collection<String> namePrefixes,
+      final Collection<String> tagKeys,
+      final Collection<String> tagValues,
+      final BiFunction<String, String, R> mapper) {
+    final Set<R> result = ConcurrentHashMap.newKeySet();
+    final AtomicInteger errorCount = new AtomicInteger(0);
+    final List<Filter> filters = SecretListFilters.of(namePrefixes, tagKeys, tagValues);
+    try {
+      if (filters.isEmpty()) {
+        // BatchGetSecretValue requires either filters or secret ids, so fetch listed secrets by id
+        listSecrets(filters)
+            .iterator()
+            .forEachRemaining(
+                listSecretsResponse ->
+                    batchGetSecretValuesById(
+                        listSecretsResponse.secretList().stream()
+                            .map(SecretListEntry::name)
+                            .collect(Collectors.toList()),
+                        mapper,
+                        result,
+                        errorCount));
+      } else {
+        batchGetFilteredSecretValues(filters, mapper, result, errorCount);
+      }
+    } catch (final Exception e) {
+      LOG.warn("Unexpected error during AWS list-secrets operation", e);
+      errorCount.incrementAndGet();
+    }
+    return MappedResults.newInstance(result, errorCount.intValue());
+  }
+
+  private <R> void batchGetFilteredSecretValues(
+      final List<Filter> filters,
+      final BiFunction<String, String, R> mapper,
+      final Set<R> result,
+      final AtomicInteger errorCount) {
+    final Set<String> fetchedSecretIds = new HashSet<>();
+    try {
+      batchGetSecretValuePages(
+          BatchGetSecretValueRequest.builder()
+              .filters(filters)
+              .maxResults(MAX_BATCH_GET_SECRET_VALUES)
+              .build(),
+          mapper,
+          result,
+          errorCount,
+          fetchedSecretIds);
+    } catch (final SdkException e) {
+      // a failed page has no token for the page after it, so the remaining secrets are listed
+      LOG.warn(
+          "Failed to fetch page of filtered secrets from AWS Secrets Manager, "
+              + "fetching the remaining secrets by id",
+          e);
+      listSecrets(filters)
+          .iterator()
+          .forEachRemaining(
+              listSecretsResponse ->
+                  batchGetSecretValuesById(
+                      listSecretsResponse.secretList().stream()
+                          .filter(
+                              entry ->
+                                  !fetchedSecretIds.contains(entry.name())
+                                      && !fetchedSecretIds.contains(entry.arn()))
+                          .map(SecretListEntry::name)
+                          .collect(Collectors.toList()),
+                      mapper,
+                      result,
+                      errorCount));
+    }
+  }
+
+  private <R> void batchGetSecretValuesById(
+      final List<String> secretIds,
+      final BiFunction<String, String, R> mapper,
+      final Set<R> result,
+      final AtomicInteger errorCount) {
+    for (final List<String> batch : Lists.partition(secretIds, MAX_BATCH_GET_SECRET_VALUES)) {
+      try {
+        batchGetSecretValuePages(
+            BatchGetSecretValueRequest.builder().secretIdList(batch).build(),
+            mapper,
+            result,
+            errorCount,
+            new HashSet<>());
+      } catch (final SdkException e) {
+        // includes client side failures such as timeouts, the remaining batches are still fetched
+        LOG.warn("Failed to fetch batch of secrets from AWS Secrets Manager", e);
+        errorCount.addAndGet(batch.size());
+      }
+    }
+  }
+
+  private <R> void batchGetSecretValuePages(
+      final BatchGetSecretValueRequest request,
+      final BiFunction<String, String, R> mapper,
+      final Set<R> result,
+      final AtomicInteger errorCount,
+      final Set<String> fetchedSecretIds) {
+    BatchGetSecretValueRequest pageRequest = request;
+    do {
+      final BatchGetSecretValueResponse response =
+          secretsManagerClient.batchGetSecretValue(pageRequest);
+      response
+          .secretValues()
+          .forEach(
+              secretValue -> {
+                fetchedSecretIds.add(secretValue.name());
+                mapSecret(
+                    secretValue.name(),
+                    Optional.ofNullable(secretValue.secretString()),
+                    mapper,
+                    result,
+                    errorCount);
+              });
+      response
+          .errors()
+          .forEach(
+              error -> {
+                fetchedSecretIds.add(error.secretId());
+                LOG.warn(
+                    "Failed to fetch secret '{}' from AWS Secrets Manager due to: {} {}",
+                    error.secretId(),
+                    error.errorCode(),
+                    error.message());
+                errorCount.incrementAndGet();
+              });
+      pageRequest =
+          response.nextToken() == null
+              ? null
+              : request.toBuilder().nextToken(response.nextToken()).build();
+    } while (pageRequest != null);
+  }
+
+  private static <R> void mapSecret(
+      final String secretName,
+      final Optional<String> secretValue,
+      final BiFunction<String, String, R> mapper,
+      final Set<R> result,
+      final AtomicInteger errorCount) {
+    try {
+      if (secretValue.isEmpty()) {
+        LOG.warn("Failed to fetch secret name '{}', and was discarded", secretName);
+        errorCount.incrementAndGet();
+      } else {
+        final MappedResults<R> multiResult = mapSecretValue(mapper, secretName, secretValue.get());
+        result.addAll(multiResult.getValues());
+        errorCount.addAndGet(multiResult.getErrorCount());
+      }
+    } catch (final Exception e) {
+      LOG.warn(
+          "Failed to map secret '{}' to requested object type due to: {}.",
+          secretName,
+          e.getMessage());
+      errorCount.incrementAndGet();
+    }
+  }
+
   @Override
   public void close() {
+    secretValueCache.ifPresent(AwsSecretValueCache::close);
     this.secretsManagerClient.close();
   }
 }
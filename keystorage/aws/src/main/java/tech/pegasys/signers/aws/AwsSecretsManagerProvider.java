@@ -30,9 +30,22 @@ public class AwsSecretsManagerProvider implements Closeable {
 
   private static final Logger LOGGER = LogManager.getLogger();
   private final Cache<AwsKeyIdentifier, AwsSecretsManager> awsSecretsManagerCache;
+  private final Optional<AwsSecretValueCacheSettings> secretValueCacheSettings;
 
   public AwsSecretsManagerProvider(final long cacheMaximumSize) {
+    this(cacheMaximumSize, Optional.empty());
+  }
+
+  /**
+   * @param cacheMaximumSize Maximum number of AwsSecretsManager instances to cache
+   * @param secretValueCacheSettings When present, each AwsSecretsManager caches fetched secret
+   *     values with these settings.
+   */
+  public AwsSecretsManagerProvider(
+      final long cacheMaximumSize,
+      final Optional<AwsSecretValueCacheSettings> secretValueCacheSettings) {
     awsSecretsManagerCache = CacheBuilder.newBuilder().maximumSize(cacheMaximumSize).build();
+    this.secretValueCacheSettings = secretValueCacheSettings;
   }
 
   private AwsSecretsManager fromCacheOrCallable(
@@ -53,7 +66,11 @@ public class AwsSecretsManagerProvider implements Closeable {
         new AwsKeyIdentifier(accessKeyId, Region.of(region)),
         () ->
             AwsSecretsManager.createAwsSecretsManager(
-                accessKeyId, secretAccessKey, region, awsEndpointOverride));
+                accessKeyId,
+                secretAccessKey,
+                region,
+                awsEndpointOverride,
+                secretValueCacheSettings));
   }
 
   public AwsSecretsManager createAwsSecretsManager(final Optional<URI> awsEndpointOverride) {
@@ -62,7 +79,9 @@ public class AwsSecretsManagerProvider implements Closeable {
     final Region region = DefaultAwsRegionProviderChain.builder().build().getRegion();
     return fromCacheOrCallable(
         new AwsKeyIdentifier(accessKeyId, region),
-        () -> AwsSecretsManager.createAwsSecretsManager(awsEndpointOverride));
+        () ->
+            AwsSecretsManager.createAwsSecretsManager(
+                awsEndpointOverride, secretValueCacheSettings));
   }
 
   @Override
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import software.amazon.awssdk.services.secretsmanager.model.Filter;
+import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
+
+/** Builds the ListSecrets filters shared by the sync and async secrets managers. */
+final class SecretListFilters {
+
+  private SecretListFilters() {}
+
+  static List<Filter> of(
+      final Collection<String> namePrefixes,
+      final Collection<String> tagKeys,
+      final Collection<String> tagValues) {
+    final List<Filter> filters = new ArrayList<>();
+    if (!namePrefixes.isEmpty()) {
+      filters.add(Filter.builder().key(FilterNameStringType.NAME).values(namePrefixes).build());
+    }
+    if (!tagKeys.isEmpty()) {
+      filters.add(Filter.builder().key(FilterNameStringType.TAG_KEY).values(tagKeys).build());
+    }
+    if (!tagValues.isEmpty()) {
+      filters.add(Filter.builder().key(FilterNameStringType.TAG_VALUE).values(tagValues).build());
+    }
+    return filters;
+  }
+}
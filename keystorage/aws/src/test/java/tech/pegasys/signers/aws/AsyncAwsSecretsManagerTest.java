@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.common.MappedResults;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+
+class AsyncAwsSecretsManagerTest {
+
+  private final SecretsManagerAsyncClient client = mock(SecretsManagerAsyncClient.class);
+  private final Map<String, CompletableFuture<GetSecretValueResponse>> pendingFetches =
+      new ConcurrentHashMap<>();
+
+  @BeforeEach
+  void setup() {
+    when(client.listSecrets(any(ListSecretsRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              final ListSecretsRequest request = invocation.getArgument(0);
+              return CompletableFuture.completedFuture(
+                  request.nextToken() == null
+                      ? page("page2", "secret1", "secret2", "secret3")
+                      : page(null, "secret4", "secret5"));
+            });
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              final GetSecretValueRequest request = invocation.getArgument(0);
+              final CompletableFuture<GetSecretValueResponse> future = new CompletableFuture<>();
+              pendingFetches.put(request.secretId(), future);
+              return future;
+            });
+  }
+
+  @Test
+  void mapsSecretsFromAllPages() {
+    final AsyncAwsSecretsManager manager = new AsyncAwsSecretsManager(client, 10);
+
+    final CompletableFuture<MappedResults<SimpleEntry<String, String>>> results =
+        mapAllSecrets(manager);
+    completeAllPendingFetches();
+
+    assertThat(results).isCompleted();
+    assertThat(results.join().getErrorCount()).isZero();
+    assertThat(results.join().getValues().stream().map(SimpleEntry::getKey))
+        .containsExactlyInAnyOrder("secret1", "secret2", "secret3", "secret4", "secret5");
+  }
+
+  @Test
+  void nextPageIsListedWhileValuesAreBeingFetched() {
+    final AsyncAwsSecretsManager manager = new AsyncAwsSecretsManager(client, 10);
+
+    final CompletableFuture<MappedResults<SimpleEntry<String, String>>> results =
+        mapAllSecrets(manager);
+
+    verify(client, times(2)).listSecrets(any(ListSecretsRequest.class));
+    assertThat(pendingFetches).hasSize(5);
+    assertThat(results).isNotDone();
+  }
+
+  @Test
+  void inFlightRequestsAreBoundedByWindow() {
+    final AsyncAwsSecretsManager manager = new AsyncAwsSecretsManager(client, 2);
+
+    final CompletableFuture<MappedResults<SimpleEntry<String, String>>> results =
+        mapAllSecrets(manager);
+
+    int completedFetches = 0;
+    while (completedFetches < 5) {
+      final List<String> outstanding = outstandingFetches();
+      assertThat(outstanding).hasSizeLessThanOrEqualTo(2).isNotEmpty();
+      respond(outstanding.get(0));
+      completedFetches++;
+    }
+
+    assertThat(results).isCompleted();
+    assertThat(results.join().getValues()).hasSize(5);
+  }
+
+  @Test
+  void failedFetchesAndMappingsAreCountedAsErrors() {
+    final AsyncAwsSecretsManager manager = new AsyncAwsSecretsManager(client, 10);
+
+    final CompletableFuture<MappedResults<SimpleEntry<String, String>>> results =
+        manager.mapSecrets(
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            (name, value) -> {
+              if (name.equals("secret3")) {
+                throw new RuntimeException("Arbitrary Failure");
+              }
+              return name.equals("secret4") ? null : new SimpleEntry<>(name, value);
+            });
+    pendingFetches
+        .remove("secret1")
+        .completeExceptionally(ResourceNotFoundException.builder().message("missing").build());
+    pendingFetches
+        .remove("secret2")
+        .completeExceptionally(SecretsManagerException.builder().message("denied").build());
+    completeAllPendingFetches();
+
+    assertThat(results.join().getErrorCount()).isEqualTo(4);
+    assertThat(results.join().getValues().stream().map(SimpleEntry::getKey))
+        .containsExactly("secret5");
+  }
+
+  @Test
+  void failedListingIsReportedAsError() {
+    when(client.listSecrets(any(ListSecretsRequest.class)))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                SecretsManagerException.builder().message("denied").build()));
+    final AsyncAwsSecretsManager manager = new AsyncAwsSecretsManager(client, 10);
+
+    final MappedResults<SimpleEntry<String, String>> results = mapAllSecrets(manager).join();
+
+    assertThat(results.getErrorCount()).isOne();
+    assertThat(results.getValues()).isEmpty();
+  }
+
+  private CompletableFuture<MappedResults<SimpleEntry<String, String>>> mapAllSecrets(
+      final AsyncAwsSecretsManager manager) {
+    return manager.mapSecrets(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        SimpleEntry::new);
+  }
+
+  private List<String> outstandingFetches() {
+    return pendingFetches.entrySet().stream()
+        .filter(entry -> !entry.getValue().isDone())
+        .map(Map.Entry::getKey)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private void completeAllPendingFetches() {
+    List<String> outstanding = outstandingFetches();
+    while (!outstanding.isEmpty()) {
+      outstanding.forEach(this::respond);
+      outstanding = outstandingFetches();
+    }
+  }
+
+  private void respond(final String secretName) {
+    pendingFetches
+        .get(secretName)
+        .complete(
+            GetSecretValueResponse.builder()
+                .name(secretName)
+                .secretString(secretName + "-value")
+                .build());
+  }
+
+  private static ListSecretsResponse page(final String nextToken, final String... names) {
+    return ListSecretsResponse.builder()
+        .nextToken(nextToken)
+        .secretList(
+            Arrays.stream(names)
+                .map(name -> SecretListEntry.builder().name(name).build())
+                .collect(Collectors.toList()))
+        .build();
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretResponse;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+
+class AwsSecretValueCacheTest {
+  private static final String SECRET_NAME = "secret";
+  private static final Duration TTL = Duration.ofMinutes(5);
+  private static final AwsSecretValueCacheSettings SETTINGS =
+      new AwsSecretValueCacheSettings(10, TTL);
+
+  private final SecretsManagerClient client = mock(SecretsManagerClient.class);
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return nanos.get();
+        }
+      };
+
+  @Test
+  void cachedValueIsServedUntilTimeToLiveElapses() {
+    stubSecretValue("value1", "v1");
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    verify(client, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    verify(client, never()).describeSecret(any(DescribeSecretRequest.class));
+    assertThat(cache.getMissCount()).isOne();
+    assertThat(cache.getHitCount()).isOne();
+    assertThat(cache.getRefreshCount()).isZero();
+  }
+
+  @Test
+  void refreshDoesNotFetchValueWhenVersionIsUnchanged() {
+    stubSecretValue("value1", "v1");
+    stubCurrentVersion("v1");
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+    advancePastTimeToLive();
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    verify(client, times(1)).describeSecret(any(DescribeSecretRequest.class));
+    verify(client, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    assertThat(cache.getRefreshCount()).isOne();
+    assertThat(cache.getUnchangedRefreshCount()).isOne();
+  }
+
+  @Test
+  void refreshFetchesValueWhenVersionHasChanged() {
+    stubSecretValue("value1", "v1");
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    stubSecretValue("value2", "v2");
+    stubCurrentVersion("v2");
+    advancePastTimeToLive();
+
+    assertThat(cache.get(SECRET_NAME)).contains("value2");
+    verify(client, times(2)).getSecretValue(any(GetSecretValueRequest.class));
+    assertThat(cache.getRefreshCount()).isOne();
+    assertThat(cache.getUnchangedRefreshCount()).isZero();
+  }
+
+  @Test
+  void staleValueIsServedWhileRefreshIsInProgress() throws InterruptedException {
+    final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    final CountDownLatch refreshMayProceed = new CountDownLatch(1);
+    stubSecretValue("value1", "v1");
+    final AwsSecretValueCache cache = createCache(refreshExecutor);
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    stubSecretValue("value2", "v2");
+    when(client.describeSecret(any(DescribeSecretRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              refreshMayProceed.await();
+              return describeSecretResponse("v2");
+            });
+    advancePastTimeToLive();
+
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+    refreshMayProceed.countDown();
+    refreshExecutor.shutdown();
+    assertThat(refreshExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(cache.get(SECRET_NAME)).contains("value2");
+  }
+
+  @Test
+  void refreshComparesFetchedVersionWhenSecretCannotBeDescribed() {
+    stubSecretValue("value1", "v1");
+    when(client.describeSecret(any(DescribeSecretRequest.class)))
+        .thenThrow(SecretsManagerException.builder().message("not authorized").build());
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+    advancePastTimeToLive();
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    verify(client, times(2)).getSecretValue(any(GetSecretValueRequest.class));
+    assertThat(cache.getRefreshCount()).isOne();
+    assertThat(cache.getUnchangedRefreshCount()).isOne();
+  }
+
+  @Test
+  void entryWhichCannotBeRefreshedExpiresAtMaximumAge() {
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenReturn(
+            GetSecretValueResponse.builder()
+                .name(SECRET_NAME)
+                .secretString("value1")
+                .versionId("v1")
+                .build())
+        .thenThrow(SecretsManagerException.builder().message("unavailable").build());
+    when(client.describeSecret(any(DescribeSecretRequest.class)))
+        .thenThrow(SecretsManagerException.builder().message("unavailable").build());
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+    advancePastTimeToLive();
+    assertThat(cache.get(SECRET_NAME)).contains("value1");
+
+    nanos.addAndGet(SETTINGS.getMaximumAge().toNanos());
+    assertThatThrownBy(() -> cache.get(SECRET_NAME))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("Failed to fetch secret from AWS Secrets Manager");
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void missingSecretIsCachedAsEmpty() {
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenThrow(ResourceNotFoundException.builder().message("missing").build());
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).isEmpty();
+    assertThat(cache.get(SECRET_NAME)).isEmpty();
+
+    verify(client, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+  }
+
+  @Test
+  void binarySecretIsCachedAsEmpty() {
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenReturn(
+            GetSecretValueResponse.builder()
+                .name(SECRET_NAME)
+                .secretBinary(SdkBytes.fromUtf8String("binary"))
+                .versionId("v1")
+                .build());
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThat(cache.get(SECRET_NAME)).isEmpty();
+    assertThat(cache.get(SECRET_NAME)).isEmpty();
+
+    verify(client, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+  }
+
+  @Test
+  void failedFetchIsNotCached() {
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenThrow(SecretsManagerException.builder().message("denied").build());
+    final AwsSecretValueCache cache = createCache(MoreExecutors.newDirectExecutorService());
+
+    assertThatThrownBy(() -> cache.get(SECRET_NAME))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("Failed to fetch secret from AWS Secrets Manager");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void awsSecretsManagerFetchesThroughCacheWhenEnabled() {
+    stubSecretValue("value1", "v1");
+    final AwsSecretsManager awsSecretsManager =
+        new AwsSecretsManager(client, Optional.of(SETTINGS));
+
+    assertThat(awsSecretsManager.fetchSecret(SECRET_NAME)).contains("value1");
+    assertThat(awsSecretsManager.fetchSecret(SECRET_NAME)).contains("value1");
+
+    verify(client, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    assertThat(awsSecretsManager.getSecretValueCache().orElseThrow().getHitCount()).isOne();
+    awsSecretsManager.close();
+  }
+
+  private AwsSecretValueCache createCache(final ExecutorService refreshExecutor) {
+    return new AwsSecretValueCache(client, SETTINGS, ticker, refreshExecutor);
+  }
+
+  private void advancePastTimeToLive() {
+    nanos.addAndGet(TTL.plusSeconds(1).toNanos());
+  }
+
+  private void stubSecretValue(final String value, final String versionId) {
+    when(client.getSecretValue(any(GetSecretValueRequest.class)))
+        .thenReturn(
+            GetSecretValueResponse.builder()
+                .name(SECRET_NAME)
+                .secretString(value)
+                .versionId(versionId)
+                .build());
+  }
+
+  private void stubCurrentVersion(final String versionId) {
+    when(client.describeSecret(any(DescribeSecretRequest.class)))
+        .thenReturn(describeSecretResponse(versionId));
+  }
+
+  private static DescribeSecretResponse describeSecretResponse(final String currentVersionId) {
+    return DescribeSecretResponse.builder()
+        .name(SECRET_NAME)
+        .versionIdsToStages(
+            Map.of(currentVersionId, List.of("AWSCURRENT"), "previous", List.of("AWSPREVIOUS")))
+        .build();
+  }
+}
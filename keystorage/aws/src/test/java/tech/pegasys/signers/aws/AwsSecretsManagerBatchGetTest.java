@@ -0,0 +1,250 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.common.MappedResults;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.APIErrorType;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsResponse;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
+import software.amazon.awssdk.services.secretsmanager.model.SecretValueEntry;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+import software.amazon.awssdk.services.secretsmanager.paginators.ListSecretsIterable;
+
+class AwsSecretsManagerBatchGetTest {
+
+  private final SecretsManagerClient client = mock(SecretsManagerClient.class);
+  private final AwsSecretsManager awsSecretsManager = new AwsSecretsManager(client);
+
+  @Test
+  void filteredSecretsAreFetchedWithoutListing() {
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              final BatchGetSecretValueRequest request = invocation.getArgument(0);
+              return request.nextToken() == null
+                  ? BatchGetSecretValueResponse.builder()
+                      .secretValues(secretValues("secret1", "secret2"))
+                      .nextToken("page2")
+                      .build()
+                  : BatchGetSecretValueResponse.builder()
+                      .secretValues(secretValues("secret3"))
+                      .errors(
+                          APIErrorType.builder()
+                              .secretId("secret4")
+                              .errorCode("DecryptionFailure")
+                              .message("failed")
+                              .build())
+                      .build();
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        awsSecretsManager.mapSecretsInBatches(
+            List.of("secret"), Collections.emptyList(), Collections.emptyList(), SimpleEntry::new);
+
+    assertThat(results.getValues().stream().map(SimpleEntry::getKey))
+        .containsExactlyInAnyOrder("secret1", "secret2", "secret3");
+    assertThat(results.getErrorCount()).isOne();
+
+    final ArgumentCaptor<BatchGetSecretValueRequest> requests =
+        ArgumentCaptor.forClass(BatchGetSecretValueRequest.class);
+    verify(client, times(2)).batchGetSecretValue(requests.capture());
+    assertThat(requests.getAllValues())
+        .allSatisfy(
+            request -> {
+              assertThat(request.filters()).hasSize(1);
+              assertThat(request.filters().get(0).key()).isEqualTo(FilterNameStringType.NAME);
+              assertThat(request.maxResults()).isEqualTo(20);
+            });
+    verify(client, never()).listSecretsPaginator(any(ListSecretsRequest.class));
+    verify(client, never()).getSecretValue(any(GetSecretValueRequest.class));
+  }
+
+  @Test
+  void failedFilteredPageFetchesRemainingSecretsById() {
+    final List<String> secretNames = secretNames(6);
+    stubListSecrets(secretNames);
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              final BatchGetSecretValueRequest request = invocation.getArgument(0);
+              if (request.hasSecretIdList()) {
+                return BatchGetSecretValueResponse.builder()
+                    .secretValues(secretValues(request.secretIdList().toArray(String[]::new)))
+                    .build();
+              }
+              if (request.nextToken() == null) {
+                return BatchGetSecretValueResponse.builder()
+                    .secretValues(secretValues("secret0", "secret1"))
+                    .nextToken("page2")
+                    .build();
+              }
+              // page 2 of 3 fails, so page 3 cannot be requested
+              throw SdkClientException.create("timed out");
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        awsSecretsManager.mapSecretsInBatches(
+            List.of("secret"), Collections.emptyList(), Collections.emptyList(), SimpleEntry::new);
+
+    assertThat(results.getValues().stream().map(SimpleEntry::getKey))
+        .containsExactlyInAnyOrderElementsOf(secretNames);
+    assertThat(results.getErrorCount()).isZero();
+
+    final ArgumentCaptor<BatchGetSecretValueRequest> requests =
+        ArgumentCaptor.forClass(BatchGetSecretValueRequest.class);
+    verify(client, times(3)).batchGetSecretValue(requests.capture());
+    assertThat(requests.getAllValues().get(2).secretIdList())
+        .containsExactly("secret2", "secret3", "secret4", "secret5");
+  }
+
+  @Test
+  void unfilteredSecretsAreFetchedByIdInBatchesOfTwenty() {
+    final List<String> secretNames = secretNames(45);
+    stubListSecrets(secretNames);
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              final BatchGetSecretValueRequest request = invocation.getArgument(0);
+              return BatchGetSecretValueResponse.builder()
+                  .secretValues(secretValues(request.secretIdList().toArray(String[]::new)))
+                  .build();
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results = mapAllSecretsInBatches();
+
+    assertThat(results.getValues().stream().map(SimpleEntry::getKey))
+        .containsExactlyInAnyOrderElementsOf(secretNames);
+    assertThat(results.getErrorCount()).isZero();
+
+    final ArgumentCaptor<BatchGetSecretValueRequest> requests =
+        ArgumentCaptor.forClass(BatchGetSecretValueRequest.class);
+    verify(client, times(3)).batchGetSecretValue(requests.capture());
+    assertThat(requests.getAllValues().stream().map(request -> request.secretIdList().size()))
+        .containsExactly(20, 20, 5);
+    verify(client, never()).getSecretValue(any(GetSecretValueRequest.class));
+  }
+
+  @Test
+  void failedBatchCountsErrorForEachSecretInBatch() {
+    stubListSecrets(secretNames(25));
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenThrow(SecretsManagerException.builder().message("throttled").build());
+
+    final MappedResults<SimpleEntry<String, String>> results = mapAllSecretsInBatches();
+
+    assertThat(results.getValues()).isEmpty();
+    assertThat(results.getErrorCount()).isEqualTo(25);
+  }
+
+  @Test
+  void clientFailureOfOneBatchDoesNotPreventRemainingBatches() {
+    stubListSecrets(secretNames(25));
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenThrow(SdkClientException.create("timed out"))
+        .thenAnswer(
+            invocation -> {
+              final BatchGetSecretValueRequest request = invocation.getArgument(0);
+              return BatchGetSecretValueResponse.builder()
+                  .secretValues(secretValues(request.secretIdList().toArray(String[]::new)))
+                  .build();
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results = mapAllSecretsInBatches();
+
+    assertThat(results.getValues()).hasSize(5);
+    assertThat(results.getErrorCount()).isEqualTo(20);
+  }
+
+  @Test
+  void secretsWithoutStringValueAndFailedMappingsAreCountedAsErrors() {
+    when(client.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenReturn(
+            BatchGetSecretValueResponse.builder()
+                .secretValues(
+                    SecretValueEntry.builder().name("binary").build(),
+                    SecretValueEntry.builder().name("invalid").secretString("value").build(),
+                    SecretValueEntry.builder().name("valid").secretString("value").build())
+                .build());
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        awsSecretsManager.mapSecretsInBatches(
+            Collections.emptyList(),
+            List.of("tagKey"),
+            Collections.emptyList(),
+            (name, value) -> {
+              if (name.equals("invalid")) {
+                throw new RuntimeException("Arbitrary Failure");
+              }
+              return new SimpleEntry<>(name, value);
+            });
+
+    assertThat(results.getValues().stream().map(SimpleEntry::getKey)).containsExactly("valid");
+    assertThat(results.getErrorCount()).isEqualTo(2);
+  }
+
+  private MappedResults<SimpleEntry<String, String>> mapAllSecretsInBatches() {
+    return awsSecretsManager.mapSecretsInBatches(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        SimpleEntry::new);
+  }
+
+  private void stubListSecrets(final List<String> secretNames) {
+    when(client.listSecretsPaginator(any(ListSecretsRequest.class)))
+        .thenAnswer(invocation -> new ListSecretsIterable(client, invocation.getArgument(0)));
+    when(client.listSecrets(any(ListSecretsRequest.class)))
+        .thenReturn(
+            ListSecretsResponse.builder()
+                .secretList(
+                    secretNames.stream()
+                        .map(name -> SecretListEntry.builder().name(name).build())
+                        .collect(Collectors.toList()))
+                .build());
+  }
+
+  private static List<String> secretNames(final int count) {
+    return IntStream.range(0, count).mapToObj(i -> "secret" + i).collect(Collectors.toList());
+  }
+
+  private static List<SecretValueEntry> secretValues(final String... names) {
+    return Arrays.stream(names)
+        .map(name -> SecretValueEntry.builder().name(name).secretString(name + "-value").build())
+        .collect(Collectors.toList());
+  }
+}
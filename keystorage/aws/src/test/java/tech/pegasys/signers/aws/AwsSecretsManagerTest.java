@@ -221,6 +221,23 @@ class AwsSecretsManagerTest {
         .doesNotContainAnyElementsOf(secretsMaps.getPrefixBSecretsMap().keySet());
   }
 
+  @Test
+  void listAndMapSecretsInBatchesWithPrefix() {
+    final MappedResults<SimpleEntry<String, String>> mappedResults =
+        awsSecretsManagerExplicit.mapSecretsInBatches(
+            List.of(SECRET_NAME_PREFIX_A),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            SimpleEntry::new);
+
+    final Set<String> fetchedKeys =
+        mappedResults.getValues().stream().map(SimpleEntry::getKey).collect(Collectors.toSet());
+
+    assertThat(fetchedKeys).containsAll(secretsMaps.getPrefixASecretsMap().keySet());
+    assertThat(fetchedKeys)
+        .doesNotContainAnyElementsOf(secretsMaps.getPrefixBSecretsMap().keySet());
+  }
+
   @Test
   void listAndMapSecretsWithPrefixAndTags() {
     MappedResults<SimpleEntry<String, String>> mappedResults =
@@ -17,6 +17,7 @@ import tech.pegasys.signers.common.MappedResults;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
@@ -31,20 +32,26 @@ import com.azure.security.keyvault.keys.KeyClientBuilder;
 import com.azure.security.keyvault.keys.cryptography.CryptographyClient;
 import com.azure.security.keyvault.keys.cryptography.CryptographyClientBuilder;
 import com.azure.security.keyvault.keys.models.KeyVaultKey;
+import com.azure.security.keyvault.secrets.SecretAsyncClient;
 import com.azure.security.keyvault.secrets.SecretClient;
 import com.azure.security.keyvault.secrets.SecretClientBuilder;
 import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
 import com.azure.security.keyvault.secrets.models.SecretProperties;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class AzureKeyVault {
 
   private static final Logger LOG = LogManager.getLogger();
 
   private final TokenCredential tokenCredential;
+  private final String vaultUrl;
   private final SecretClient secretClient;
   private final KeyClient keyClient;
+  // only needed for bulk loading, so built on first use
+  private SecretAsyncClient secretAsyncClient;
 
   public static AzureKeyVault createUsingClientSecretCredentials(
       final String clientId,
@@ -69,9 +76,9 @@ public class AzureKeyVault {
     return new AzureKeyVault(managedIdentityCredentialBuilder.build(), vaultName);
   }
 
-  private AzureKeyVault(final TokenCredential tokenCredential, final String vaultName) {
+  AzureKeyVault(final TokenCredential tokenCredential, final String vaultName) {
     this.tokenCredential = tokenCredential;
-    final String vaultUrl = constructAzureKeyVaultUrl(vaultName);
+    this.vaultUrl = constructAzureKeyVaultUrl(vaultName);
 
     secretClient =
         new SecretClientBuilder().vaultUrl(vaultUrl).credential(tokenCredential).buildClient();
@@ -79,6 +86,30 @@ public class AzureKeyVault {
     keyClient = new KeyClientBuilder().vaultUrl(vaultUrl).credential(tokenCredential).buildClient();
   }
 
+  AzureKeyVault(
+      final TokenCredential tokenCredential,
+      final String vaultName,
+      final SecretClient secretClient,
+      final SecretAsyncClient secretAsyncClient,
+      final KeyClient keyClient) {
+    this.tokenCredential = tokenCredential;
+    this.vaultUrl = constructAzureKeyVaultUrl(vaultName);
+    this.secretClient = secretClient;
+    this.secretAsyncClient = secretAsyncClient;
+    this.keyClient = keyClient;
+  }
+
+  private synchronized SecretAsyncClient getSecretAsyncClient() {
+    if (secretAsyncClient == null) {
+      secretAsyncClient =
+          new SecretClientBuilder()
+              .vaultUrl(vaultUrl)
+              .credential(tokenCredential)
+              .buildAsyncClient();
+    }
+    return secretAsyncClient;
+  }
+
   public Optional<String> fetchSecret(final String secretName) {
     try {
       return Optional.of(secretClient.getSecret(secretName).getValue());
@@ -129,15 +160,8 @@ public class AzureKeyVault {
                           sp -> {
                             try {
                               final KeyVaultSecret secret = secretClient.getSecret(sp.getName());
-                              final R obj = mapper.apply(sp.getName(), secret.getValue());
-                              if (obj != null) {
-                                result.add(obj);
-                              } else {
-                                LOG.warn(
-                                    "Mapped '{}' to a null object, and was discarded",
-                                    sp.getName());
-                                errorCount.incrementAndGet();
-                              }
+                              addMappedSecret(
+                                  sp.getName(), secret.getValue(), mapper, result, errorCount);
                             } catch (final Exception e) {
                               LOG.warn(
                                   "Failed to map secret '{}' to requested object type.",
@@ -153,6 +177,78 @@ public class AzureKeyVault {
     return MappedResults.newInstance(result, errorCount.intValue());
   }
 
+  /**
+   * Fetch multiple secrets from Azure without blocking. Pages of secret properties are requested
+   * as secrets are consumed, and at most maxConcurrency secrets are fetched at the same time.
+   * Mapper functions are applied on the bounded elastic scheduler, never on the http client's
+   * event loop.
+   *
+   * @param mapper The mapper function to transform secret values to type R.
+   * @param tags Map of tags. Only secrets which contains all the tags entries are processed.
+   * @param maxConcurrency Maximum number of secrets being fetched at the same time.
+   * @return Future of mapped results containing the converted secrets and error count. The future
+   *     does not complete exceptionally, failures are reflected in the error count.
+   * @param <R> The result type of mapper function.
+   */
+  public <R> CompletableFuture<MappedResults<R>> mapSecretsAsync(
+      final BiFunction<String, String, R> mapper,
+      final Map<String, String> tags,
+      final int maxConcurrency) {
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("maxConcurrency must be positive");
+    }
+    final Set<R> result = ConcurrentHashMap.newKeySet();
+    final AtomicInteger errorCount = new AtomicInteger(0);
+    final SecretAsyncClient client = getSecretAsyncClient();
+
+    return client
+        .listPropertiesOfSecrets()
+        .filter(secretProperties -> secretPropertiesPredicate(tags, secretProperties))
+        .flatMap(
+            sp ->
+                client
+                    .getSecret(sp.getName())
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(
+                        secret ->
+                            addMappedSecret(
+                                sp.getName(), secret.getValue(), mapper, result, errorCount))
+                    .then()
+                    .onErrorResume(
+                        e -> {
+                          LOG.warn(
+                              "Failed to map secret '{}' to requested object type.",
+                              sp.getName());
+                          errorCount.incrementAndGet();
+                          return Mono.empty();
+                        }),
+            maxConcurrency)
+        .then()
+        .onErrorResume(
+            e -> {
+              LOG.error("Unexpected error during Azure map-secrets", e);
+              errorCount.incrementAndGet();
+              return Mono.empty();
+            })
+        .then(Mono.fromSupplier(() -> MappedResults.newInstance(result, errorCount.intValue())))
+        .toFuture();
+  }
+
+  private static <R> void addMappedSecret(
+      final String secretName,
+      final String secretValue,
+      final BiFunction<String, String, R> mapper,
+      final Set<R> result,
+      final AtomicInteger errorCount) {
+    final R obj = mapper.apply(secretName, secretValue);
+    if (obj != null) {
+      result.add(obj);
+    } else {
+      LOG.warn("Mapped '{}' to a null object, and was discarded", secretName);
+      errorCount.incrementAndGet();
+    }
+  }
+
   private static boolean secretPropertiesPredicate(
       final Map<String, String> tags, final SecretProperties secretProperties) {
     if (tags == null || tags.isEmpty()) {
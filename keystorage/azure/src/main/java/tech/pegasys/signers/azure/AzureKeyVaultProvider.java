@@ -0,0 +1,201 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.azure;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.azure.core.credential.TokenCredential;
+import com.azure.identity.ClientSecretCredentialBuilder;
+import com.azure.identity.ManagedIdentityCredentialBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Shares AzureKeyVault instances, and the token credentials behind them, between callers using the
+ * same vault and identity. Key Vault access tokens are scoped to the Key Vault service rather than
+ * to a vault, so vaults accessed with the same identity also share a credential and its token.
+ *
+ * <p>Azure SDK clients hold no resources which need closing, so evicted or invalidated entries are
+ * simply dropped; clients handed out earlier remain usable.
+ */
+public class AzureKeyVaultProvider implements Closeable {
+
+  private final Cache<CredentialIdentifier, TokenCredential> credentialCache;
+  private final Cache<VaultIdentifier, AzureKeyVault> vaultCache;
+
+  public AzureKeyVaultProvider(final long cacheMaximumSize) {
+    credentialCache = CacheBuilder.newBuilder().maximumSize(cacheMaximumSize).build();
+    vaultCache = CacheBuilder.newBuilder().maximumSize(cacheMaximumSize).build();
+  }
+
+  public AzureKeyVault createUsingClientSecretCredentials(
+      final String clientId,
+      final String clientSecret,
+      final String tenantId,
+      final String vaultName) {
+    final CredentialIdentifier credentialIdentifier =
+        clientSecretCredentialIdentifier(clientId, clientSecret, tenantId);
+    return fromCacheOrCallable(
+        vaultCache,
+        new VaultIdentifier(vaultName, credentialIdentifier),
+        () ->
+            new AzureKeyVault(
+                fromCacheOrCallable(
+                    credentialCache,
+                    credentialIdentifier,
+                    () ->
+                        new ClientSecretCredentialBuilder()
+                            .clientId(clientId)
+                            .clientSecret(clientSecret)
+                            .tenantId(tenantId)
+                            .build()),
+                vaultName));
+  }
+
+  public AzureKeyVault createUsingManagedIdentity(
+      final Optional<String> clientId, final String vaultName) {
+    final CredentialIdentifier credentialIdentifier =
+        new CredentialIdentifier(
+            AuthenticationMode.MANAGED_IDENTITY, Optional.empty(), clientId, Optional.empty());
+    return fromCacheOrCallable(
+        vaultCache,
+        new VaultIdentifier(vaultName, credentialIdentifier),
+        () ->
+            new AzureKeyVault(
+                fromCacheOrCallable(
+                    credentialCache,
+                    credentialIdentifier,
+                    () -> {
+                      final ManagedIdentityCredentialBuilder managedIdentityCredentialBuilder =
+                          new ManagedIdentityCredentialBuilder();
+                      clientId.ifPresent(managedIdentityCredentialBuilder::clientId);
+                      return managedIdentityCredentialBuilder.build();
+                    }),
+                vaultName));
+  }
+
+  /**
+   * Drops the cached vault and credential for a client secret identity, for example after the vault
+   * rejected its token, so that the next create call authenticates again.
+   */
+  public void invalidateClientSecretCredentials(
+      final String clientId,
+      final String clientSecret,
+      final String tenantId,
+      final String vaultName) {
+    final CredentialIdentifier credentialIdentifier =
+        clientSecretCredentialIdentifier(clientId, clientSecret, tenantId);
+    vaultCache.invalidate(new VaultIdentifier(vaultName, credentialIdentifier));
+    credentialCache.invalidate(credentialIdentifier);
+  }
+
+  public long size() {
+    return vaultCache.size();
+  }
+
+  @Override
+  public void close() {
+    vaultCache.invalidateAll();
+    credentialCache.invalidateAll();
+  }
+
+  private static CredentialIdentifier clientSecretCredentialIdentifier(
+      final String clientId, final String clientSecret, final String tenantId) {
+    // the secret is part of the key so that a rotated secret is not masked by a cached credential
+    return new CredentialIdentifier(
+        AuthenticationMode.CLIENT_SECRET,
+        Optional.of(tenantId),
+        Optional.of(clientId),
+        Optional.of(Hashing.sha256().hashString(clientSecret, UTF_8).toString()));
+  }
+
+  private static <K, V> V fromCacheOrCallable(
+      final Cache<K, V> cache, final K key, final Callable<? extends V> loader) {
+    try {
+      return cache.get(key, loader);
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  private enum AuthenticationMode {
+    CLIENT_SECRET,
+    MANAGED_IDENTITY
+  }
+
+  private static class CredentialIdentifier {
+    private final AuthenticationMode authenticationMode;
+    private final Optional<String> tenantId;
+    private final Optional<String> clientId;
+    private final Optional<String> clientSecretHash;
+
+    CredentialIdentifier(
+        final AuthenticationMode authenticationMode,
+        final Optional<String> tenantId,
+        final Optional<String> clientId,
+        final Optional<String> clientSecretHash) {
+      this.authenticationMode = authenticationMode;
+      this.tenantId = tenantId;
+      this.clientId = clientId;
+      this.clientSecretHash = clientSecretHash;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final CredentialIdentifier that = (CredentialIdentifier) o;
+      return authenticationMode == that.authenticationMode
+          && tenantId.equals(that.tenantId)
+          && clientId.equals(that.clientId)
+          && clientSecretHash.equals(that.clientSecretHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(authenticationMode, tenantId, clientId, clientSecretHash);
+    }
+  }
+
+  private static class VaultIdentifier {
+    private final String vaultName;
+    private final CredentialIdentifier credentialIdentifier;
+
+    VaultIdentifier(final String vaultName, final CredentialIdentifier credentialIdentifier) {
+      this.vaultName = vaultName;
+      this.credentialIdentifier = credentialIdentifier;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final VaultIdentifier that = (VaultIdentifier) o;
+      return vaultName.equals(that.vaultName)
+          && credentialIdentifier.equals(that.credentialIdentifier);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(vaultName, credentialIdentifier);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.azure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.common.MappedResults;
+
+import java.time.Duration;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.rest.PagedFlux;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.core.http.rest.PagedResponseBase;
+import com.azure.security.keyvault.secrets.SecretAsyncClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class AzureKeyVaultAsyncTest {
+
+  private final SecretAsyncClient secretAsyncClient = mock(SecretAsyncClient.class);
+  private final AzureKeyVault azureKeyVault =
+      new AzureKeyVault(null, "vault", null, secretAsyncClient, null);
+
+  @Test
+  void secretsFromAllPagesMatchingTagsAreMapped() {
+    stubListing(
+        List.of(
+            secretProperties("untagged", null),
+            secretProperties("tagged", Map.of("ENV", "TEST"))),
+        List.of(
+            secretProperties("other", Map.of("ENV", "PROD")),
+            secretProperties("tagged2", Map.of("ENV", "TEST"))));
+    stubSecretValues();
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        azureKeyVault.mapSecretsAsync(SimpleEntry::new, Map.of("ENV", "TEST"), 4).join();
+
+    assertThat(results.getValues())
+        .containsExactlyInAnyOrder(
+            new SimpleEntry<>("tagged", "tagged-value"),
+            new SimpleEntry<>("tagged2", "tagged2-value"));
+    assertThat(results.getErrorCount()).isZero();
+  }
+
+  @Test
+  void concurrentFetchesAreBounded() {
+    final List<SecretProperties> secrets =
+        IntStream.range(0, 50)
+            .mapToObj(i -> secretProperties("secret" + i, null))
+            .collect(Collectors.toList());
+    stubListing(secrets.subList(0, 25), secrets.subList(25, 50));
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    when(secretAsyncClient.getSecret(anyString()))
+        .thenAnswer(
+            invocation -> {
+              final String name = invocation.getArgument(0);
+              return Mono.just(new KeyVaultSecret(name, name + "-value"))
+                  .delayElement(Duration.ofMillis(5))
+                  .doOnSubscribe(
+                      subscription ->
+                          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                  .doFinally(signal -> inFlight.decrementAndGet());
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        azureKeyVault.mapSecretsAsync(SimpleEntry::new, Collections.emptyMap(), 4).join();
+
+    assertThat(results.getValues()).hasSize(50);
+    assertThat(results.getErrorCount()).isZero();
+    assertThat(maxInFlight.get()).isBetween(1, 4);
+  }
+
+  @Test
+  void failedFetchesAndMappingsAreCountedAsErrors() {
+    stubListing(
+        List.of(
+            secretProperties("missing", null),
+            secretProperties("invalid", null),
+            secretProperties("null", null),
+            secretProperties("valid", null)),
+        List.of());
+    when(secretAsyncClient.getSecret(anyString()))
+        .thenAnswer(
+            invocation -> {
+              final String name = invocation.getArgument(0);
+              return name.equals("missing")
+                  ? Mono.error(new RuntimeException("not found"))
+                  : Mono.just(new KeyVaultSecret(name, name + "-value"));
+            });
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        azureKeyVault
+            .mapSecretsAsync(
+                (name, value) -> {
+                  if (name.equals("invalid")) {
+                    throw new RuntimeException("Arbitrary Failure");
+                  }
+                  return name.equals("null") ? null : new SimpleEntry<>(name, value);
+                },
+                Collections.emptyMap(),
+                4)
+            .join();
+
+    assertThat(results.getValues()).containsExactly(new SimpleEntry<>("valid", "valid-value"));
+    assertThat(results.getErrorCount()).isEqualTo(3);
+  }
+
+  @Test
+  void failedListingIsCountedAsError() {
+    when(secretAsyncClient.listPropertiesOfSecrets())
+        .thenReturn(new PagedFlux<>(() -> Mono.error(new RuntimeException("unauthorized"))));
+
+    final MappedResults<SimpleEntry<String, String>> results =
+        azureKeyVault.mapSecretsAsync(SimpleEntry::new, Collections.emptyMap(), 4).join();
+
+    assertThat(results.getValues()).isEmpty();
+    assertThat(results.getErrorCount()).isOne();
+  }
+
+  private void stubListing(
+      final List<SecretProperties> firstPage, final List<SecretProperties> secondPage) {
+    when(secretAsyncClient.listPropertiesOfSecrets())
+        .thenReturn(
+            new PagedFlux<>(
+                () -> Mono.just(page(firstPage, "page2")),
+                continuationToken -> Mono.just(page(secondPage, null))));
+  }
+
+  private void stubSecretValues() {
+    when(secretAsyncClient.getSecret(anyString()))
+        .thenAnswer(
+            invocation -> {
+              final String name = invocation.getArgument(0);
+              return Mono.just(new KeyVaultSecret(name, name + "-value"));
+            });
+  }
+
+  private static PagedResponse<SecretProperties> page(
+      final List<SecretProperties> secrets, final String continuationToken) {
+    return new PagedResponseBase<Void, SecretProperties>(
+        null, 200, new HttpHeaders(), secrets, continuationToken, null);
+  }
+
+  private static SecretProperties secretProperties(
+      final String name, final Map<String, String> tags) {
+    return new KeyVaultSecret(name, "").getProperties().setTags(tags);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.azure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class AzureKeyVaultProviderTest {
+  private static final String CLIENT_ID = "clientId";
+  private static final String CLIENT_SECRET = "clientSecret";
+  private static final String TENANT_ID = "tenantId";
+  private static final String VAULT_NAME = "vault";
+
+  private final AzureKeyVaultProvider provider = new AzureKeyVaultProvider(10);
+
+  @Test
+  void sameVaultAndIdentityReturnsSameInstance() {
+    final AzureKeyVault vault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+
+    assertThat(createUsingClientSecret(CLIENT_SECRET, VAULT_NAME)).isSameAs(vault);
+    assertThat(provider.size()).isOne();
+  }
+
+  @Test
+  void differentVaultsReturnDifferentInstances() {
+    final AzureKeyVault vault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+
+    assertThat(createUsingClientSecret(CLIENT_SECRET, "otherVault")).isNotSameAs(vault);
+    assertThat(provider.size()).isEqualTo(2);
+  }
+
+  @Test
+  void differentClientSecretReturnsDifferentInstance() {
+    final AzureKeyVault vault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+
+    assertThat(createUsingClientSecret("rotatedSecret", VAULT_NAME)).isNotSameAs(vault);
+  }
+
+  @Test
+  void authenticationModeIsPartOfIdentity() {
+    final AzureKeyVault clientSecretVault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+    final AzureKeyVault managedIdentityVault =
+        provider.createUsingManagedIdentity(Optional.of(CLIENT_ID), VAULT_NAME);
+
+    assertThat(managedIdentityVault).isNotSameAs(clientSecretVault);
+    assertThat(provider.createUsingManagedIdentity(Optional.of(CLIENT_ID), VAULT_NAME))
+        .isSameAs(managedIdentityVault);
+    assertThat(provider.createUsingManagedIdentity(Optional.empty(), VAULT_NAME))
+        .isNotSameAs(managedIdentityVault);
+  }
+
+  @Test
+  void cacheSizeIsBounded() {
+    final AzureKeyVaultProvider boundedProvider = new AzureKeyVaultProvider(2);
+    for (int i = 0; i < 5; i++) {
+      boundedProvider.createUsingClientSecretCredentials(
+          CLIENT_ID, CLIENT_SECRET, TENANT_ID, VAULT_NAME + i);
+    }
+
+    assertThat(boundedProvider.size()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void invalidatedIdentityIsCreatedAgain() {
+    final AzureKeyVault vault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+    final AzureKeyVault otherVault = createUsingClientSecret(CLIENT_SECRET, "otherVault");
+
+    provider.invalidateClientSecretCredentials(CLIENT_ID, CLIENT_SECRET, TENANT_ID, VAULT_NAME);
+
+    assertThat(provider.size()).isOne();
+    assertThat(createUsingClientSecret(CLIENT_SECRET, VAULT_NAME)).isNotSameAs(vault);
+    assertThat(createUsingClientSecret(CLIENT_SECRET, "otherVault")).isSameAs(otherVault);
+  }
+
+  @Test
+  void closeDiscardsCachedInstances() {
+    final AzureKeyVault vault = createUsingClientSecret(CLIENT_SECRET, VAULT_NAME);
+    provider.close();
+
+    assertThat(provider.size()).isZero();
+    assertThat(createUsingClientSecret(CLIENT_SECRET, VAULT_NAME)).isNotSameAs(vault);
+  }
+
+  private AzureKeyVault createUsingClientSecret(final String clientSecret, final String vaultName) {
+    return provider.createUsingClientSecretCredentials(
+        CLIENT_ID, clientSecret, TENANT_ID, vaultName);
+  }
+}
@@ -12,66 +12,280 @@
  */
 package tech.pegasys.signers.hashicorp;
 
+import tech.pegasys.signers.hashicorp.HashicorpKVResponseMapper.VersionedKeyValues;
 import tech.pegasys.signers.hashicorp.config.ConnectionParameters;
 import tech.pegasys.signers.hashicorp.config.KeyDefinition;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 public class HashicorpConnection {
 
+  public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 32;
   private static final String DEFAULT_HASHICORP_KEY_NAME = "value";
+  private static final String KV_DATA_SEGMENT = "/data/";
+  private static final String KV_METADATA_SEGMENT = "/metadata/";
 
   private final HttpClient httpClient;
   private final ConnectionParameters connectionParameters;
+  private final Optional<HashicorpSecretCache> secretCache;
 
   HashicorpConnection(
       final HttpClient httpClient, final ConnectionParameters connectionParameters) {
+    this(httpClient, connectionParameters, Optional.empty());
+  }
+
+  HashicorpConnection(
+      final HttpClient httpClient,
+      final ConnectionParameters connectionParameters,
+      final Optional<HashicorpSecretCache> secretCache) {
     this.httpClient = httpClient;
     this.connectionParameters = connectionParameters;
+    this.secretCache = secretCache;
   }
 
   public String fetchKey(final KeyDefinition key) {
-    final Map<String, String> kvMap = fetchKeyValuesFromVault(key);
-    final String keyName = key.getKeyName().orElse(DEFAULT_HASHICORP_KEY_NAME);
-    return Optional.ofNullable(kvMap.get(keyName))
+    if (secretCache.isPresent()) {
+      return secretCache.get().get(this, key);
+    }
+    return extractKey(fetchKeyValues(key).getKeyValues(), key);
+  }
+
+  /**
+   * Fetch a key without blocking the calling thread.
+   *
+   * @param key Definition of the key to fetch
+   * @return Future completing with the key, or exceptionally with a HashicorpException
+   */
+  public CompletableFuture<String> fetchKeyAsync(final KeyDefinition key) {
+    if (secretCache.isPresent()) {
+      return secretCache.get().getAsync(this, key);
+    }
+    return fetchKeyValuesAsync(key)
+        .thenApply(keyValues -> extractKey(keyValues.getKeyValues(), key));
+  }
+
+  /**
+   * Fetch keys with at most {@link #DEFAULT_MAX_IN_FLIGHT_REQUESTS} requests in flight.
+   *
+   * @see #fetchKeys(Collection, int)
+   */
+  public List<CompletableFuture<String>> fetchKeys(final Collection<KeyDefinition> keys) {
+    return fetchKeys(keys, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+  }
+
+  /**
+   * Fetch keys concurrently, starting a new request whenever one of at most maxInFlightRequests
+   * outstanding requests completes. Over HTTP/2 the requests are multiplexed on one connection.
+   *
+   * @param keys Definitions of the keys to fetch
+   * @param maxInFlightRequests Maximum number of outstanding requests
+   * @return Futures in the iteration order of keys, each completing with its key or exceptionally
+   *     with a HashicorpException. A failed key does not affect the others.
+   */
+  public List<CompletableFuture<String>> fetchKeys(
+      final Collection<KeyDefinition> keys, final int maxInFlightRequests) {
+    if (maxInFlightRequests <= 0) {
+      throw new IllegalArgumentException("maxInFlightRequests must be positive");
+    }
+    final List<PendingFetch> pendingFetches =
+        keys.stream().map(PendingFetch::new).collect(Collectors.toList());
+    final Queue<PendingFetch> queue = new ConcurrentLinkedQueue<>(pendingFetches);
+    for (int i = 0; i < Math.min(maxInFlightRequests, pendingFetches.size()); i++) {
+      fetchNext(queue);
+    }
+    return pendingFetches.stream().map(PendingFetch::getResult).collect(Collectors.toList());
+  }
+
+  private void fetchNext(final Queue<PendingFetch> queue) {
+    PendingFetch pendingFetch;
+    // loops rather than recursing for fetches which complete immediately, e.g. invalid key paths
+    while ((pendingFetch = queue.poll()) != null) {
+      final CompletableFuture<String> fetch = fetchKeyAsync(pendingFetch.getKey());
+      fetch.whenComplete(pendingFetch::complete);
+      if (!fetch.isDone()) {
+        fetch.whenComplete((secret, error) -> fetchNext(queue));
+        return;
+      }
+    }
+  }
+
+  URI getVaultURI() {
+    return connectionParameters.getVaultURI();
+  }
+
+  // key values only hold the requested key, which is read from the response as it is streamed
+  VersionedKeyValues fetchKeyValues(final KeyDefinition keyDefinition) {
+    final HttpResponse<InputStream> response =
+        send(
+            createRequest(keyDefinition.getKeyPath(), keyDefinition.getToken()),
+            HttpResponse.BodyHandlers.ofInputStream());
+    try (final InputStream body = response.body()) {
+      checkStatusCode(response);
+      return HashicorpKVResponseMapper.from(body, keyName(keyDefinition));
+    } catch (final IOException e) {
+      throw communicationFailure(e);
+    }
+  }
+
+  CompletableFuture<VersionedKeyValues> fetchKeyValuesAsync(final KeyDefinition keyDefinition) {
+    final HttpRequest httpRequest;
+    try {
+      httpRequest = createRequest(keyDefinition.getKeyPath(), keyDefinition.getToken());
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(communicationFailure(e));
+    }
+    // buffered rather than streamed, so that completion stages do not block reading the body
+    return httpClient
+        .sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+        .handle(
+            (response, error) -> {
+              if (error != null) {
+                throw communicationFailure(
+                    error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+              }
+              checkStatusCode(response);
+              try {
+                return HashicorpKVResponseMapper.from(
+                    new ByteArrayInputStream(response.body()), keyName(keyDefinition));
+              } catch (final IOException e) {
+                throw communicationFailure(e);
+              }
+            });
+  }
+
+  /**
+   * Read the current version of a KV-v2 secret from its metadata, without transferring the secret.
+   *
+   * @param keyDefinition Definition of the key, with a KV-v2 data path such as
+   *     /v1/secret/data/path
+   * @return Current version of the secret, empty if its metadata is not available
+   */
+  Optional<Long> fetchCurrentVersion(final KeyDefinition keyDefinition) {
+    final String keyPath = keyDefinition.getKeyPath();
+    final int dataIndex = keyPath.indexOf(KV_DATA_SEGMENT);
+    if (dataIndex < 0) {
+      return Optional.empty();
+    }
+    final String metadataPath =
+        keyPath.substring(0, dataIndex)
+            + KV_METADATA_SEGMENT
+            + keyPath.substring(dataIndex + KV_DATA_SEGMENT.length());
+    final HttpResponse<String> response =
+        send(
+            createRequest(metadataPath, keyDefinition.getToken()),
+            HttpResponse.BodyHandlers.ofString());
+    checkPermitted(response);
+    if (response.statusCode() != 200) {
+      return Optional.empty();
+    }
+    return HashicorpKVResponseMapper.currentVersionFromMetadata(response.body());
+  }
+
+  static String extractKey(final Map<String, String> kvMap, final KeyDefinition key) {
+    return Optional.ofNullable(kvMap.get(keyName(key)))
         .orElseThrow(
             () ->
                 new HashicorpException(
                     "Error communicating with Hashicorp vault: Requested Secret name does not exist."));
   }
 
-  private Map<String, String> fetchKeyValuesFromVault(final KeyDefinition keyDefinition) {
-    final URI vaultReadURI =
-        connectionParameters.getVaultURI().resolve(keyDefinition.getKeyPath()).normalize();
-    final HttpRequest httpRequest =
-        HttpRequest.newBuilder(vaultReadURI)
-            .header("X-Vault-Token", keyDefinition.getToken())
-            .header("Content-Type", "application/json")
-            .timeout(Duration.ofMillis(connectionParameters.getTimeoutMilliseconds()))
-            .GET()
-            .build();
-    final HttpResponse<String> response;
+  static String keyName(final KeyDefinition key) {
+    return key.getKeyName().orElse(DEFAULT_HASHICORP_KEY_NAME);
+  }
+
+  private <T> HttpResponse<T> send(
+      final HttpRequest httpRequest, final HttpResponse.BodyHandler<T> bodyHandler) {
     try {
-      response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+      return httpClient.send(httpRequest, bodyHandler);
     } catch (final IOException | InterruptedException | RuntimeException e) {
-      throw new HashicorpException(
-          "Error communicating with Hashicorp vault: " + e.getMessage(), e);
+      throw communicationFailure(e);
     }
+  }
+
+  private HttpRequest createRequest(final String path, final String token) {
+    final URI vaultReadURI = connectionParameters.getVaultURI().resolve(path).normalize();
+    return HttpRequest.newBuilder(vaultReadURI)
+        .header("X-Vault-Token", token)
+        .header("Content-Type", "application/json")
+        .timeout(Duration.ofMillis(connectionParameters.getTimeoutMilliseconds()))
+        .GET()
+        .build();
+  }
 
+  private static void checkStatusCode(final HttpResponse<?> response) {
+    checkPermitted(response);
     if (response.statusCode() != 200 && response.statusCode() != 204) {
-      throw new HashicorpException(
-          String.format(
-              "Error communicating with Hashicorp vault: Received invalid Http status code %d.",
-              response.statusCode()));
+      throw new HashicorpException(invalidStatusCodeMessage(response));
+    }
+  }
+
+  private static void checkPermitted(final HttpResponse<?> response) {
+    if (response.statusCode() == 401 || response.statusCode() == 403) {
+      throw new PermissionDeniedException(invalidStatusCodeMessage(response));
     }
+  }
+
+  private static String invalidStatusCodeMessage(final HttpResponse<?> response) {
+    return String.format(
+        "Error communicating with Hashicorp vault: Received invalid Http status code %d.",
+        response.statusCode());
+  }
 
-    return HashicorpKVResponseMapper.from(response.body());
+  private static HashicorpException communicationFailure(final Throwable cause) {
+    return new HashicorpException(
+        "Error communicating with Hashicorp vault: " + cause.getMessage(), cause);
+  }
+
+  /** Vault rejected the token used for the request, as it is invalid, revoked or not authorized. */
+  static class PermissionDeniedException extends HashicorpException {
+    PermissionDeniedException(final String message) {
+      super(message);
+    }
+  }
+
+  private static class PendingFetch {
+    private final KeyDefinition key;
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+
+    PendingFetch(final KeyDefinition key) {
+      this.key = key;
+    }
+
+    KeyDefinition getKey() {
+      return key;
+    }
+
+    CompletableFuture<String> getResult() {
+      return result;
+    }
+
+    void complete(final String secret, final Throwable error) {
+      if (error == null) {
+        result.complete(secret);
+      } else {
+        result.completeExceptionally(
+            error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error);
+      }
+    }
   }
 }
@@ -21,49 +21,99 @@ import java.net.http.HttpClient;
 import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * Factory for Hashicorp connections. Uses Java's HttpClient implementation. Cache HttpClient for
- * each host/port.
+ * each host/port, TLS options and timeout, so a long-lived factory reuses connections and TLS
+ * sessions across all keys read from the same vault. The client is replaced when its trust store
+ * changes.
  */
 public class HashicorpConnectionFactory implements AutoCloseable {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private final Map<URI, HttpClient> httpClientMap = new ConcurrentHashMap<>();
+  // TrustManagerFactoryProvider returns the same factory until the trust store changes, so an
+  // SSLContext is only initialised once per distinct trust store across all connection factories
+  private static final Cache<TrustManagerFactory, SSLContext> sslContextCache =
+      CacheBuilder.newBuilder().weakKeys().build();
 
-  public HashicorpConnectionFactory() {}
+  private final Map<HttpClientKey, CachedHttpClient> httpClientMap = new ConcurrentHashMap<>();
+  private final Optional<HashicorpSecretCache> secretCache;
+
+  public HashicorpConnectionFactory() {
+    this(Optional.empty());
+  }
+
+  /**
+   * @param secretCacheSettings Settings of a secret cache shared by all connections created by this
+   *     factory, or empty to fetch every key from the vault
+   */
+  public HashicorpConnectionFactory(
+      final Optional<HashicorpSecretCacheSettings> secretCacheSettings) {
+    this.secretCache = secretCacheSettings.map(HashicorpSecretCache::new);
+  }
 
   public HashicorpConnection create(final ConnectionParameters connectionParameters) {
     final HttpClient httpClient = getHttpClient(connectionParameters);
 
-    return new HashicorpConnection(httpClient, connectionParameters);
+    return new HashicorpConnection(httpClient, connectionParameters, secretCache);
+  }
+
+  /** @return The secret cache used by the created connections, if it was enabled. */
+  public Optional<HashicorpSecretCache> getSecretCache() {
+    return secretCache;
+  }
+
+  HttpClient getHttpClient(ConnectionParameters connectionParameters) {
+    // the SSLContext is resolved on each call, so that a rotated trust store replaces the client
+    final Optional<SSLContext> sslContext;
+    try {
+      sslContext =
+          connectionParameters.getTlsOptions().isPresent()
+              ? Optional.of(getCustomSSLContext(connectionParameters.getTlsOptions().get()))
+              : Optional.empty();
+    } catch (final Exception e) {
+      throw new HashicorpException("Unable to initialise connection to hashicorp vault.", e);
+    }
+
+    return httpClientMap
+        .compute(
+            new HttpClientKey(connectionParameters),
+            (key, cachedHttpClient) ->
+                cachedHttpClient != null && cachedHttpClient.sslContext.equals(sslContext)
+                    ? cachedHttpClient
+                    : new CachedHttpClient(
+                        sslContext, createHttpClient(connectionParameters, sslContext)))
+        .httpClient;
   }
 
-  private HttpClient getHttpClient(ConnectionParameters connectionParameters) {
-
-    return httpClientMap.computeIfAbsent(
-        connectionParameters.getVaultURI(),
-        _key -> {
-          final HttpClient.Builder httpClientBuilder =
-              HttpClient.newBuilder()
-                  .connectTimeout(Duration.ofMillis(connectionParameters.getTimeoutMilliseconds()));
-          try {
-            if (connectionParameters.getTlsOptions().isPresent()) {
-              LOG.debug("Connection to hashicorp vault using TLS.");
-              httpClientBuilder.sslContext(
-                  getCustomSSLContext(connectionParameters.getTlsOptions().get()));
-            }
-            return httpClientBuilder.build();
-          } catch (final Exception e) {
-            throw new HashicorpException("Unable to initialise connection to hashicorp vault.", e);
-          }
-        });
+  private HttpClient createHttpClient(
+      final ConnectionParameters connectionParameters, final Optional<SSLContext> sslContext) {
+    // HTTP/2 is negotiated where the vault supports it, so concurrent requests from
+    // HashicorpConnection.fetchKeys are multiplexed over a single connection
+    final HttpClient.Builder httpClientBuilder =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectionParameters.getTimeoutMilliseconds()));
+    if (sslContext.isPresent()) {
+      LOG.debug("Connection to hashicorp vault using TLS.");
+      httpClientBuilder.sslContext(sslContext.get());
+    }
+    return httpClientBuilder.build();
+  }
+
+  int httpClientCount() {
+    return httpClientMap.size();
   }
 
   private SSLContext getCustomSSLContext(final TlsOptions tlsOptions)
@@ -75,12 +125,17 @@ public class HashicorpConnectionFactory implements AutoCloseable {
       return SSLContext.getDefault();
     }
 
+    final TrustManagerFactory trustManagerFactory =
+        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions);
+    final SSLContext cachedSslContext = sslContextCache.getIfPresent(trustManagerFactory);
+    if (cachedSslContext != null) {
+      return cachedSslContext;
+    }
+
     // Hashicorp vault support TLSv1.3 by default, hence we default to TLSv1.3 being more secure.
     final SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
-    sslContext.init(
-        null,
-        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions).getTrustManagers(),
-        null);
+    sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+    sslContextCache.put(trustManagerFactory, sslContext);
     return sslContext;
   }
 
@@ -110,5 +165,43 @@ public class HashicorpConnectionFactory implements AutoCloseable {
   @Override
   public void close() {
     httpClientMap.clear();
+    secretCache.ifPresent(HashicorpSecretCache::close);
+  }
+
+  private static class CachedHttpClient {
+    private final Optional<SSLContext> sslContext;
+    private final HttpClient httpClient;
+
+    CachedHttpClient(final Optional<SSLContext> sslContext, final HttpClient httpClient) {
+      this.sslContext = sslContext;
+      this.httpClient = httpClient;
+    }
+  }
+
+  private static class HttpClientKey {
+    private final URI vaultURI;
+    private final Optional<TlsOptions> tlsOptions;
+    private final long timeoutMilliseconds;
+
+    HttpClientKey(final ConnectionParameters connectionParameters) {
+      this.vaultURI = connectionParameters.getVaultURI();
+      this.tlsOptions = connectionParameters.getTlsOptions();
+      this.timeoutMilliseconds = connectionParameters.getTimeoutMilliseconds();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final HttpClientKey that = (HttpClientKey) o;
+      return timeoutMilliseconds == that.timeoutMilliseconds
+          && vaultURI.equals(that.vaultURI)
+          && tlsOptions.equals(that.tlsOptions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(vaultURI, tlsOptions, timeoutMilliseconds);
+    }
   }
 }
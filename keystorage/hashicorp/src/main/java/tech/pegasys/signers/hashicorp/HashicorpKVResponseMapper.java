@@ -12,17 +12,29 @@
  */
 package tech.pegasys.signers.hashicorp;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 
 public class HashicorpKVResponseMapper {
   public static final String ERROR_INVALID_JSON = "Invalid response returned from Hashicorp Vault";
+  private static final String DATA_FIELD = "data";
+  private static final String METADATA_FIELD = "metadata";
+  private static final String VERSION_FIELD = "version";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
   /**
    * Convert Hashicorp KV Version 2 Secret Engine JSON response to map of key/values
@@ -31,29 +43,174 @@ public class HashicorpKVResponseMapper {
    * @return All key/value pairs
    */
   public static Map<String, String> from(final String json) {
+    return fromVersioned(json).getKeyValues();
+  }
+
+  /**
+   * Convert Hashicorp KV Version 2 Secret Engine JSON response to map of key/values along with the
+   * version of the secret from its metadata.
+   *
+   * @param json response from Hashicorp Vault
+   * @return All key/value pairs and the secret version, if the response contains one
+   */
+  static VersionedKeyValues fromVersioned(final String json) {
+    final JsonObject jsonResponse = parse(json);
+
+    // expecting Hashicorp kv-v2 secret engine compatible JSON json
+    final JsonObject data =
+        Optional.ofNullable(jsonResponse.getJsonObject("data"))
+            .orElseThrow(() -> new HashicorpException(ERROR_INVALID_JSON));
+    final JsonObject keyData =
+        Optional.ofNullable(data.getJsonObject("data"))
+            .orElseThrow(() -> new HashicorpException(ERROR_INVALID_JSON));
+    final Map<String, String> keyValues =
+        Collections.unmodifiableMap(
+            keyData.stream()
+                .filter(entry -> Objects.nonNull(entry.getValue()))
+                .collect(
+                    Collectors.toMap(
+                        Map.Entry::getKey, HashicorpKVResponseMapper::getValueToString)));
+    final Optional<Long> version =
+        Optional.ofNullable(data.getJsonObject("metadata")).map(jo -> jo.getLong("version"));
+    return new VersionedKeyValues(keyValues, version);
+  }
+
+  /**
+   * Read the current version of a secret from a Hashicorp KV Version 2 metadata JSON response.
+   *
+   * @param json metadata response from Hashicorp Vault
+   * @return Current version of the secret, empty if the response does not contain one
+   */
+  static Optional<Long> currentVersionFromMetadata(final String json) {
+    return Optional.ofNullable(parse(json).getJsonObject("data"))
+        .map(jo -> jo.getLong("current_version"));
+  }
+
+  /**
+   * Read a single key from a Hashicorp KV Version 2 Secret Engine JSON response as it is streamed,
+   * without holding the whole response or its other key/values in memory. The response is still
+   * read to its end, so that malformed JSON is rejected as by {@link #from(String)}.
+   *
+   * @param json response from Hashicorp Vault
+   * @param keyName name of the key to read from data.data
+   * @return The requested key/value pair, if present, and the secret version from data.metadata
+   * @throws IOException if the response could not be read
+   */
+  static VersionedKeyValues from(final InputStream json, final String keyName) throws IOException {
+    try (final JsonParser parser = JSON_FACTORY.createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new HashicorpException(ERROR_INVALID_JSON);
+      }
+      final StreamedKeyValue keyValue = new StreamedKeyValue(keyName);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String fieldName = parser.getCurrentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT && DATA_FIELD.equals(fieldName)) {
+          readData(parser, keyValue);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (parser.nextToken() != null || !keyValue.keyDataFound) {
+        throw new HashicorpException(ERROR_INVALID_JSON);
+      }
+      return new VersionedKeyValues(
+          keyValue.value == null ? Map.of() : Map.of(keyName, keyValue.value),
+          Optional.ofNullable(keyValue.version));
+    } catch (final JsonProcessingException e) {
+      throw new HashicorpException(ERROR_INVALID_JSON, e);
+    }
+  }
+
+  private static void readData(final JsonParser parser, final StreamedKeyValue keyValue)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+      } else if (DATA_FIELD.equals(fieldName)) {
+        keyValue.keyDataFound = true;
+        readKeyData(parser, keyValue);
+      } else if (METADATA_FIELD.equals(fieldName)) {
+        readMetadata(parser, keyValue);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readKeyData(final JsonParser parser, final StreamedKeyValue keyValue)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      final JsonToken valueToken = parser.nextToken();
+      if (!keyValue.keyName.equals(fieldName)) {
+        parser.skipChildren();
+      } else if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+        // structured values are returned as their JSON encoding, as with from(String)
+        final StringWriter writer = new StringWriter();
+        try (final JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+          generator.copyCurrentStructure(parser);
+        }
+        keyValue.value = writer.toString();
+      } else if (valueToken != JsonToken.VALUE_NULL) {
+        keyValue.value = parser.getText();
+      }
+    }
+  }
+
+  private static void readMetadata(final JsonParser parser, final StreamedKeyValue keyValue)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.VALUE_NUMBER_INT && VERSION_FIELD.equals(fieldName)) {
+        keyValue.version = parser.getLongValue();
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static JsonObject parse(final String json) {
     if (json == null) {
       throw new HashicorpException(ERROR_INVALID_JSON);
     }
-    final JsonObject jsonResponse;
     try {
-      jsonResponse = new JsonObject(json);
-    } catch (final DecodeException de) {
-      throw new HashicorpException(ERROR_INVALID_JSON, de);
+      return new JsonObject(json);
+    } catch (final DecodeException e) {
+      throw new HashicorpException(ERROR_INVALID_JSON, e);
     }
-
-    // expecting Hashicorp kv-v2 secret engine compatible JSON json
-    final JsonObject keyData =
-        Optional.ofNullable(jsonResponse.getJsonObject("data"))
-            .map(jo -> jo.getJsonObject("data"))
-            .orElseThrow(() -> new HashicorpException(ERROR_INVALID_JSON));
-    return Collections.unmodifiableMap(
-        keyData.stream()
-            .filter(entry -> Objects.nonNull(entry.getValue()))
-            .collect(
-                Collectors.toMap(Map.Entry::getKey, HashicorpKVResponseMapper::getValueToString)));
   }
 
   private static String getValueToString(final Map.Entry<String, Object> v) {
     return v.getValue().toString();
   }
+
+  private static class StreamedKeyValue {
+    private final String keyName;
+    private boolean keyDataFound;
+    private String value;
+    private Long version;
+
+    StreamedKeyValue(final String keyName) {
+      this.keyName = keyName;
+    }
+  }
+
+  static class VersionedKeyValues {
+    private final Map<String, String> keyValues;
+    private final Optional<Long> version;
+
+    VersionedKeyValues(final Map<String, String> keyValues, final Optional<Long> version) {
+      this.keyValues = keyValues;
+      this.version = version;
+    }
+
+    Map<String, String> getKeyValues() {
+      return keyValues;
+    }
+
+    Optional<Long> getVersion() {
+      return version;
+    }
+  }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.hashicorp;
+
+import tech.pegasys.signers.hashicorp.HashicorpKVResponseMapper.VersionedKeyValues;
+import tech.pegasys.signers.hashicorp.config.KeyDefinition;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of Hashicorp Vault KV-v2 secrets keyed by vault URI, key path, key name and a SHA-256
+ * digest of the token used to read them, so a secret is only served to reads made with a token
+ * which Vault authorized for it. Once an entry is older than the configured time to live, the next
+ * read triggers a background refresh and is answered with the cached value. The refresh only reads
+ * the current version from the secret's metadata, and the secret is fetched again only if that
+ * version differs from the cached one.
+ *
+ * <p>An entry is dropped as soon as Vault rejects its token during a refresh, so a revoked token
+ * is served the cached secret for at most one more time to live. An entry which could not be
+ * refreshed for any other reason is dropped once it reaches the configured maximum age.
+ */
+public class HashicorpSecretCache {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Ticker ticker;
+  private final long timeToLiveNanos;
+  private final ExecutorService refreshExecutor;
+  private final Cache<CacheKey, CachedSecret> cache;
+  private final AtomicLong refreshCount = new AtomicLong();
+  private final AtomicLong unchangedRefreshCount = new AtomicLong();
+
+  HashicorpSecretCache(final HashicorpSecretCacheSettings settings) {
+    this(
+        settings,
+        Ticker.systemTicker(),
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("hashicorp-secret-refresh-%d")
+                .setDaemon(true)
+                .build()));
+  }
+
+  HashicorpSecretCache(
+      final HashicorpSecretCacheSettings settings,
+      final Ticker ticker,
+      final ExecutorService refreshExecutor) {
+    this.ticker = ticker;
+    this.timeToLiveNanos = settings.getTimeToLive().toNanos();
+    this.refreshExecutor = refreshExecutor;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getMaximumAge())
+            .ticker(ticker)
+            .recordStats()
+            .build();
+  }
+
+  String get(final HashicorpConnection connection, final KeyDefinition key) {
+    final CacheKey cacheKey = cacheKey(connection, key);
+    final CachedSecret cachedSecret = getIfPresent(cacheKey, connection, key);
+    if (cachedSecret != null) {
+      return cachedSecret.getValue();
+    }
+    final CachedSecret loadedSecret = cachedSecret(key, connection.fetchKeyValues(key));
+    cache.put(cacheKey, loadedSecret);
+    return loadedSecret.getValue();
+  }
+
+  CompletableFuture<String> getAsync(
+      final HashicorpConnection connection, final KeyDefinition key) {
+    final CacheKey cacheKey = cacheKey(connection, key);
+    final CachedSecret cachedSecret = getIfPresent(cacheKey, connection, key);
+    if (cachedSecret != null) {
+      return CompletableFuture.completedFuture(cachedSecret.getValue());
+    }
+    return connection
+        .fetchKeyValuesAsync(key)
+        .thenApply(
+            keyValues -> {
+              final CachedSecret loadedSecret = cachedSecret(key, keyValues);
+              cache.put(cacheKey, loadedSecret);
+              return loadedSecret.getValue();
+            });
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /** @return Number of refreshes of expired entries, including those which found no new version. */
+  public long getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  /** @return Number of refreshes which kept the cached secret as its version was unchanged. */
+  public long getUnchangedRefreshCount() {
+    return unchangedRefreshCount.get();
+  }
+
+  void close() {
+    refreshExecutor.shutdownNow();
+    cache.invalidateAll();
+  }
+
+  private CachedSecret getIfPresent(
+      final CacheKey cacheKey, final HashicorpConnection connection, final KeyDefinition key) {
+    final CachedSecret cachedSecret = cache.getIfPresent(cacheKey);
+    if (cachedSecret != null
+        && ticker.read() - cachedSecret.getLoadedAtNanos() >= timeToLiveNanos
+        && cachedSecret.startRefresh()) {
+      try {
+        refreshExecutor.execute(() -> refresh(cacheKey, cachedSecret, connection, key));
+      } catch (final RejectedExecutionException e) {
+        cachedSecret.refreshFailed();
+      }
+    }
+    return cachedSecret;
+  }
+
+  private void refresh(
+      final CacheKey cacheKey,
+      final CachedSecret oldSecret,
+      final HashicorpConnection connection,
+      final KeyDefinition key) {
+    refreshCount.incrementAndGet();
+    try {
+      final CachedSecret refreshedSecret;
+      if (oldSecret.getVersion().isPresent()
+          && oldSecret.getVersion().equals(connection.fetchCurrentVersion(key))) {
+        unchangedRefreshCount.incrementAndGet();
+        refreshedSecret =
+            new CachedSecret(oldSecret.getValue(), oldSecret.getVersion(), ticker.read());
+      } else {
+        refreshedSecret = cachedSecret(key, connection.fetchKeyValues(key));
+      }
+      // an entry invalidated or reloaded in the meantime is left as it is
+      cache.asMap().replace(cacheKey, oldSecret, refreshedSecret);
+    } catch (final HashicorpConnection.PermissionDeniedException e) {
+      LOG.warn("Token for secret {} was rejected, evicting it from the cache", key.getKeyPath());
+      cache.asMap().remove(cacheKey, oldSecret);
+    } catch (final RuntimeException e) {
+      LOG.warn("Unable to refresh secret {}: {}", key.getKeyPath(), e.getMessage());
+      // lets the next read retry the refresh, possibly with another token
+      oldSecret.refreshFailed();
+    }
+  }
+
+  private static CacheKey cacheKey(final HashicorpConnection connection, final KeyDefinition key) {
+    return new CacheKey(
+        connection.getVaultURI(),
+        key.getKeyPath(),
+        HashicorpConnection.keyName(key),
+        Hashing.sha256().hashString(key.getToken(), StandardCharsets.UTF_8));
+  }
+
+  private CachedSecret cachedSecret(final KeyDefinition key, final VersionedKeyValues keyValues) {
+    return new CachedSecret(
+        HashicorpConnection.extractKey(keyValues.getKeyValues(), key),
+        keyValues.getVersion(),
+        ticker.read());
+  }
+
+  private static class CacheKey {
+    private final URI vaultURI;
+    private final String keyPath;
+    private final String keyName;
+    private final HashCode tokenHash;
+
+    CacheKey(
+        final URI vaultURI, final String keyPath, final String keyName, final HashCode tokenHash) {
+      this.vaultURI = vaultURI;
+      this.keyPath = keyPath;
+      this.keyName = keyName;
+      this.tokenHash = tokenHash;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final CacheKey that = (CacheKey) o;
+      return vaultURI.equals(that.vaultURI)
+          && keyPath.equals(that.keyPath)
+          && keyName.equals(that.keyName)
+          && tokenHash.equals(that.tokenHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(vaultURI, keyPath, keyName, tokenHash);
+    }
+  }
+
+  private static class CachedSecret {
+    private final String value;
+    private final Optional<Long> version;
+    private final long loadedAtNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    CachedSecret(final String value, final Optional<Long> version, final long loadedAtNanos) {
+      this.value = value;
+      this.version = version;
+      this.loadedAtNanos = loadedAtNanos;
+    }
+
+    String getValue() {
+      return value;
+    }
+
+    Optional<Long> getVersion() {
+      return version;
+    }
+
+    long getLoadedAtNanos() {
+      return loadedAtNanos;
+    }
+
+    boolean startRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
+
+    void refreshFailed() {
+      refreshing.set(false);
+    }
+  }
+}
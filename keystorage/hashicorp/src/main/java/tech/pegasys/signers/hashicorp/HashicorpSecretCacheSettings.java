@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.hashicorp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link HashicorpSecretCache}. Refreshes of all cached secrets run one at a time
+ * on a single daemon thread, so the time to live should leave room for a refresh of every cached
+ * secret to complete; a refresh still queued behind others keeps serving the cached secret.
+ */
+public class HashicorpSecretCacheSettings {
+  private static final int DEFAULT_MAXIMUM_AGE_MULTIPLIER = 5;
+
+  private final long maximumSize;
+  private final Duration timeToLive;
+  private final Duration maximumAge;
+
+  /**
+   * Settings with a maximum age of five times the time to live, so a secret survives four failed
+   * refreshes, e.g. while Vault is sealed or unreachable, before reads hit Vault directly.
+   *
+   * @see #HashicorpSecretCacheSettings(long, Duration, Duration)
+   */
+  public HashicorpSecretCacheSettings(final long maximumSize, final Duration timeToLive) {
+    this(
+        maximumSize,
+        timeToLive,
+        checkNotNull(timeToLive, "timeToLive must be specified")
+            .multipliedBy(DEFAULT_MAXIMUM_AGE_MULTIPLIER));
+  }
+
+  /**
+   * @param maximumSize Maximum number of secrets to cache. The same secret read with different
+   *     tokens is cached once per token.
+   * @param timeToLive Age after which a cached secret is refreshed in the background on its next
+   *     read, using that read's token. For a KV-v2 secret the refresh only reads the {@code
+   *     current_version} from the secret's metadata and fetches the secret again only if that
+   *     version changed; secrets without a version are always fetched again. The cached secret
+   *     keeps being served until the refresh completes, and is evicted as soon as Vault rejects
+   *     the token with a 401 or 403.
+   * @param maximumAge Age after which a cached secret which could not be refreshed for any other
+   *     reason is no longer served, and is fetched again on its next read
+   */
+  public HashicorpSecretCacheSettings(
+      final long maximumSize, final Duration timeToLive, final Duration maximumAge) {
+    checkArgument(maximumSize > 0, "maximumSize must be positive");
+    checkNotNull(timeToLive, "timeToLive must be specified");
+    checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive must be positive");
+    checkNotNull(maximumAge, "maximumAge must be specified");
+    checkArgument(
+        maximumAge.compareTo(timeToLive) >= 0, "maximumAge must not be less than timeToLive");
+    this.maximumSize = maximumSize;
+    this.timeToLive = timeToLive;
+    this.maximumAge = maximumAge;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  public Duration getMaximumAge() {
+    return maximumAge;
+  }
+}
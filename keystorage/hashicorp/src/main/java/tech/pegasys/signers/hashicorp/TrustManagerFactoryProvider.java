@@ -18,27 +18,45 @@ import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import javax.net.ssl.TrustManagerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import org.apache.tuweni.net.tls.TrustManagerFactories;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMParser;
 
-/** Create TrustManagerFactory based on Trust store type. */
+/**
+ * Builds TrustManagerFactory instances from trust store files. Factories are cached by path, type,
+ * modification time, size and password hash, so each distinct trust store is only read and parsed
+ * once while a rewritten file, such as a rotated certificate or an extended allowlist, is read
+ * again.
+ */
 public class TrustManagerFactoryProvider {
 
+  private static final int MAX_CACHED_TRUST_STORES = 64;
+
+  private static final Cache<TrustStoreKey, TrustManagerFactory> trustManagerFactoryCache =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TRUST_STORES).build();
+
   public static TrustManagerFactory getTrustManagerFactory(final TlsOptions tlsOptions)
       throws GeneralSecurityException, IOException {
-    final TrustManagerFactory trustManagerFactory;
     final TrustStoreType trustStoreType =
         tlsOptions
             .getTrustStoreType()
@@ -46,26 +64,50 @@ public class TrustManagerFactoryProvider {
                 () ->
                     new HashicorpException(
                         "Cannot create TrustManagerFactory from empty truststore type."));
+    final Path trustStorePath = tlsOptions.getTrustStorePath();
+    final String trustStorePassword = tlsOptions.getTrustStorePassword();
+    if (trustStorePath == null || !Files.isRegularFile(trustStorePath)) {
+      // reports the missing file as before, or lets Tuweni create an empty allowlist
+      return build(trustStorePath, trustStorePassword, trustStoreType);
+    }
+
+    final TrustStoreKey trustStoreKey =
+        new TrustStoreKey(trustStorePath, trustStoreType, trustStorePassword);
+    final TrustManagerFactory cachedTrustManagerFactory =
+        trustManagerFactoryCache.getIfPresent(trustStoreKey);
+    if (cachedTrustManagerFactory != null) {
+      return cachedTrustManagerFactory;
+    }
+    final TrustManagerFactory trustManagerFactory =
+        build(trustStorePath, trustStorePassword, trustStoreType);
+    trustManagerFactoryCache.put(trustStoreKey, trustManagerFactory);
+    return trustManagerFactory;
+  }
+
+  static long cachedTrustStoreCount() {
+    return trustManagerFactoryCache.size();
+  }
+
+  static void invalidateCache() {
+    trustManagerFactoryCache.invalidateAll();
+  }
+
+  private static TrustManagerFactory build(
+      final Path trustStorePath,
+      final String trustStorePassword,
+      final TrustStoreType trustStoreType)
+      throws GeneralSecurityException, IOException {
     switch (trustStoreType) {
       case JKS:
       case PKCS12:
-        trustManagerFactory =
-            buildFromKeystore(
-                tlsOptions.getTrustStorePath(), tlsOptions.getTrustStorePassword(), trustStoreType);
-        break;
+        return buildFromKeystore(trustStorePath, trustStorePassword, trustStoreType);
       case PEM:
-        trustManagerFactory =
-            TrustManagerFactoryProvider.buildFromPemFile(tlsOptions.getTrustStorePath());
-        break;
+        return buildFromPemFile(trustStorePath);
       default:
         // Tuweni throws an NPE if the trustStorePath has no directory prefix, thus requiring
         // the use of absolutePath.
-        trustManagerFactory =
-            TrustManagerFactories.allowlistServers(
-                tlsOptions.getTrustStorePath().toAbsolutePath(), true);
-        break;
+        return TrustManagerFactories.allowlistServers(trustStorePath.toAbsolutePath(), true);
     }
-    return trustManagerFactory;
   }
 
   private static TrustManagerFactory buildFromKeystore(
@@ -115,4 +157,41 @@ public class TrustManagerFactoryProvider {
       return certificates;
     }
   }
+
+  private static class TrustStoreKey {
+    private final Path path;
+    private final TrustStoreType type;
+    private final FileTime lastModifiedTime;
+    private final long size;
+    private final Optional<HashCode> passwordHash;
+
+    TrustStoreKey(final Path path, final TrustStoreType type, final String password)
+        throws IOException {
+      final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      this.path = path.toAbsolutePath().normalize();
+      this.type = type;
+      this.lastModifiedTime = attributes.lastModifiedTime();
+      this.size = attributes.size();
+      this.passwordHash =
+          Optional.ofNullable(password)
+              .map(value -> Hashing.sha256().hashString(value, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final TrustStoreKey that = (TrustStoreKey) o;
+      return size == that.size
+          && path.equals(that.path)
+          && type == that.type
+          && lastModifiedTime.equals(that.lastModifiedTime)
+          && passwordHash.equals(that.passwordHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, type, lastModifiedTime, size, passwordHash);
+    }
+  }
 }
@@ -15,6 +15,7 @@ package tech.pegasys.signers.hashicorp.config;
 import tech.pegasys.signers.hashicorp.TrustStoreType;
 
 import java.nio.file.Path;
+import java.util.Objects;
 import java.util.Optional;
 
 public class TlsOptions {
@@ -43,4 +44,19 @@ public class TlsOptions {
   public String getTrustStorePassword() {
     return trustStorePassword;
   }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final TlsOptions that = (TlsOptions) o;
+    return trustStoreType.equals(that.trustStoreType)
+        && Objects.equals(trustStorePath, that.trustStorePath)
+        && Objects.equals(trustStorePassword, that.trustStorePassword);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(trustStoreType, trustStorePath, trustStorePassword);
+  }
 }
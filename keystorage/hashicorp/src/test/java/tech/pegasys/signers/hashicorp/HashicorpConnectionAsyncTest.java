@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.hashicorp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.hashicorp.config.ConnectionParameters;
+import tech.pegasys.signers.hashicorp.config.KeyDefinition;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HashicorpConnectionAsyncTest {
+
+  private final HttpClient httpClient = mock(HttpClient.class);
+  private final HashicorpConnection connection =
+      new HashicorpConnection(
+          httpClient,
+          new ConnectionParameters(
+              "localhost", Optional.empty(), Optional.empty(), Optional.of(10L)));
+  private final Map<String, CompletableFuture<HttpResponse<byte[]>>> pendingRequests =
+      new ConcurrentHashMap<>();
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() {
+    when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenAnswer(
+            invocation -> {
+              final HttpRequest request = invocation.getArgument(0);
+              final CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+              pendingRequests.put(request.uri().getPath(), response);
+              return response;
+            });
+  }
+
+  @Test
+  void fetchKeyAsyncReturnsRequestedKey() {
+    final CompletableFuture<String> result = connection.fetchKeyAsync(key("/v1/secret/data/key"));
+
+    respond("/v1/secret/data/key", 200, kvResponse("secret"));
+
+    assertThat(result.join()).isEqualTo("secret");
+  }
+
+  @Test
+  void fetchKeyAsyncFailsWithHashicorpExceptionForInvalidStatusCode() {
+    final CompletableFuture<String> result = connection.fetchKeyAsync(key("/v1/secret/data/key"));
+
+    respond("/v1/secret/data/key", 403, "{}");
+
+    assertThatThrownBy(result::join)
+        .isInstanceOf(CompletionException.class)
+        .getCause()
+        .isInstanceOf(HashicorpException.class)
+        .hasMessage(
+            "Error communicating with Hashicorp vault: Received invalid Http status code 403.");
+  }
+
+  @Test
+  void fetchKeysBoundsRequestsInFlight() {
+    final List<KeyDefinition> keys =
+        IntStream.range(0, 10)
+            .mapToObj(i -> key("/v1/secret/data/key" + i))
+            .collect(Collectors.toList());
+
+    final List<CompletableFuture<String>> results = connection.fetchKeys(keys, 3);
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(outstandingRequests()).hasSizeLessThanOrEqualTo(3).isNotEmpty();
+      respond(outstandingRequests().get(0), 200, kvResponse("secret"));
+    }
+
+    assertThat(outstandingRequests()).isEmpty();
+    assertThat(results)
+        .hasSize(10)
+        .allSatisfy(result -> assertThat(result.join()).isEqualTo("secret"));
+  }
+
+  @Test
+  void failedFetchDoesNotAffectOtherKeys() {
+    final List<CompletableFuture<String>> results =
+        connection.fetchKeys(List.of(key("/v1/secret/data/key1"), key("/v1/secret/data/key2")), 2);
+
+    pendingRequests
+        .get("/v1/secret/data/key1")
+        .completeExceptionally(new IOException("connection reset"));
+    respond("/v1/secret/data/key2", 200, kvResponse("secret2"));
+
+    assertThat(results.get(0))
+        .isCompletedExceptionally()
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(HashicorpException.class)
+        .withMessageContaining("connection reset");
+    assertThat(results.get(1).join()).isEqualTo("secret2");
+  }
+
+  private List<String> outstandingRequests() {
+    return pendingRequests.entrySet().stream()
+        .filter(entry -> !entry.getValue().isDone())
+        .map(Map.Entry::getKey)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void respond(final String path, final int statusCode, final String body) {
+    final HttpResponse<byte[]> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(statusCode);
+    when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+    pendingRequests.get(path).complete(response);
+  }
+
+  private static KeyDefinition key(final String path) {
+    return new KeyDefinition(path, Optional.empty(), "token");
+  }
+
+  private static String kvResponse(final String value) {
+    return "{\"data\": {\"data\": {\"value\": \"" + value + "\"}, \"metadata\": {\"version\": 1}}}";
+  }
+}
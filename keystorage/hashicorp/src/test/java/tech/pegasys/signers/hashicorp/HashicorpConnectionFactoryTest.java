@@ -22,12 +22,15 @@ import tech.pegasys.signers.hashicorp.config.TlsOptions;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.net.http.HttpClient;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Optional;
 
 import com.google.common.io.Resources;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
@@ -87,6 +90,29 @@ public class HashicorpConnectionFactoryTest {
     Mockito.verify(tlsOptions, Mockito.times(2)).getTrustStorePassword();
   }
 
+  @Test
+  void rotatedTrustStoreReplacesHttpClient(@TempDir final Path tempDir) throws IOException {
+    final Path trustStorePath = tempDir.resolve("truststore.pfx");
+    Files.copy(Path.of(Resources.getResource("tls/cert1.pfx").getPath()), trustStorePath);
+    final TlsOptions tlsOptions =
+        new TlsOptions(Optional.of(TrustStoreType.PKCS12), trustStorePath, "password");
+    final ConnectionParameters params =
+        new ConnectionParameters(
+            CONFIGURED_HOST, Optional.empty(), Optional.of(tlsOptions), Optional.of(10L));
+
+    final HttpClient httpClient = connectionFactory.getHttpClient(params);
+    assertThat(connectionFactory.getHttpClient(params)).isSameAs(httpClient);
+
+    Files.setLastModifiedTime(
+        trustStorePath,
+        FileTime.fromMillis(Files.getLastModifiedTime(trustStorePath).toMillis() + 10_000));
+    final HttpClient rotatedHttpClient = connectionFactory.getHttpClient(params);
+
+    assertThat(rotatedHttpClient).isNotSameAs(httpClient);
+    assertThat(connectionFactory.getHttpClient(params)).isSameAs(rotatedHttpClient);
+    assertThat(connectionFactory.httpClientCount()).isOne();
+  }
+
   @Test
   void defaultPortIsUsedByConnectionParametersIfNonConfigured() {
     final ConnectionParameters params =
@@ -12,12 +12,21 @@
  */
 package tech.pegasys.signers.hashicorp;
 
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
+import tech.pegasys.signers.hashicorp.HashicorpKVResponseMapper.VersionedKeyValues;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class HashicorpKVResponseMapperTest {
 
@@ -70,4 +79,62 @@ class HashicorpKVResponseMapperTest {
     final Map<String, String> kvMap = HashicorpKVResponseMapper.from(VALID_JSON_RESPONSE);
     Assertions.assertThat(kvMap).containsOnlyKeys("value", "dbKey1").isNotNull();
   }
+
+  @Test
+  void onlyRequestedKeyIsReadFromStreamedResponse() throws IOException {
+    final VersionedKeyValues keyValues =
+        HashicorpKVResponseMapper.from(stream(VALID_JSON_RESPONSE), "dbKey1");
+
+    Assertions.assertThat(keyValues.getKeyValues())
+        .containsOnly(
+            entry("dbKey1", "1c2c450cedaa416329fef5900854d55c00046224dffd0075b5057a088b48f9bf"));
+    Assertions.assertThat(keyValues.getVersion()).contains(1L);
+  }
+
+  @Test
+  void missingKeyIsAbsentFromStreamedResponse() throws IOException {
+    final VersionedKeyValues keyValues =
+        HashicorpKVResponseMapper.from(stream(VALID_JSON_RESPONSE), "missing");
+
+    Assertions.assertThat(keyValues.getKeyValues()).isEmpty();
+  }
+
+  @Test
+  void streamedValuesAreConvertedLikeParsedValues() throws IOException {
+    final String json =
+        "{\"data\": {\"data\": {\"number\": 42, \"flag\": true, \"empty\": null, "
+            + "\"nested\": {\"a\": [1, \"b\"]}}}}";
+    final Map<String, String> parsedKeyValues = HashicorpKVResponseMapper.from(json);
+
+    Assertions.assertThat(HashicorpKVResponseMapper.from(stream(json), "number").getKeyValues())
+        .containsOnly(entry("number", parsedKeyValues.get("number")));
+    Assertions.assertThat(HashicorpKVResponseMapper.from(stream(json), "flag").getKeyValues())
+        .containsOnly(entry("flag", parsedKeyValues.get("flag")));
+    Assertions.assertThat(HashicorpKVResponseMapper.from(stream(json), "nested").getKeyValues())
+        .containsOnly(entry("nested", parsedKeyValues.get("nested")));
+    Assertions.assertThat(HashicorpKVResponseMapper.from(stream(json), "empty").getKeyValues())
+        .isEmpty();
+    Assertions.assertThat(HashicorpKVResponseMapper.from(stream(json), "number").getVersion())
+        .isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "invalidjson{",
+        "{\"test\":\"value\"}",
+        "{\"data\": {\"metadata\": {}}}",
+        "{\"data\": {\"data\": {\"value\": \"secret\"}}",
+        "{\"data\": {\"data\": {\"value\": \"secret\"}}} trailing"
+      })
+  void exceptionThrownWhenStreamingInvalidOrUnexpectedJsonInput(final String json) {
+    assertThatThrownBy(() -> HashicorpKVResponseMapper.from(stream(json), "value"))
+        .isInstanceOf(HashicorpException.class)
+        .hasMessage(HashicorpKVResponseMapper.ERROR_INVALID_JSON);
+  }
+
+  private static InputStream stream(final String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.hashicorp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.hashicorp.config.ConnectionParameters;
+import tech.pegasys.signers.hashicorp.config.KeyDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HashicorpSecretCacheTest {
+  private static final String DATA_PATH = "/v1/secret/data/signingKey";
+  private static final String METADATA_PATH = "/v1/secret/metadata/signingKey";
+  private static final KeyDefinition KEY = new KeyDefinition(DATA_PATH, Optional.empty(), "token");
+
+  private final HttpClient httpClient = mock(HttpClient.class);
+  private final Map<String, String> responseBodies = new ConcurrentHashMap<>();
+  private final Set<String> revokedTokens = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean vaultUnavailable = new AtomicBoolean();
+  private final List<String> requestedPaths = new ArrayList<>();
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return nanos.get();
+        }
+      };
+
+  private final HashicorpSecretCache secretCache =
+      new HashicorpSecretCache(
+          new HashicorpSecretCacheSettings(10, Duration.ofMinutes(1)),
+          ticker,
+          MoreExecutors.newDirectExecutorService());
+  private final HashicorpConnection connection =
+      new HashicorpConnection(
+          httpClient,
+          new ConnectionParameters(
+              "localhost", Optional.empty(), Optional.empty(), Optional.of(10L)),
+          Optional.of(secretCache));
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() throws Exception {
+    when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenAnswer(
+            invocation -> {
+              final HttpRequest request = invocation.getArgument(0);
+              final String path = request.uri().getPath();
+              requestedPaths.add(path);
+              final HttpResponse<Object> response = mock(HttpResponse.class);
+              if (revokedTokens.contains(request.headers().firstValue("X-Vault-Token").get())) {
+                when(response.statusCode()).thenReturn(403);
+                return response;
+              }
+              if (vaultUnavailable.get()) {
+                when(response.statusCode()).thenReturn(503);
+                return response;
+              }
+              final String body = responseBodies.get(path);
+              when(response.statusCode()).thenReturn(body == null ? 404 : 200);
+              // secrets are streamed, while metadata is read as a string
+              when(response.body())
+                  .thenReturn(
+                      path.equals(METADATA_PATH) || body == null
+                          ? body
+                          : new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+              return response;
+            });
+    storeSecret(1, "secret1");
+  }
+
+  @Test
+  void repeatedFetchIsServedFromCache() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(connection.fetchKeyAsync(KEY).join()).isEqualTo("secret1");
+
+    assertThat(requestedPaths).containsExactly(DATA_PATH);
+    assertThat(secretCache.getMissCount()).isOne();
+    assertThat(secretCache.getHitCount()).isEqualTo(2);
+    assertThat(secretCache.size()).isOne();
+  }
+
+  @Test
+  void expiredEntryWithUnchangedVersionOnlyReadsMetadata() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    advance(Duration.ofMinutes(2));
+
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(requestedPaths).containsExactly(DATA_PATH, METADATA_PATH);
+    assertThat(secretCache.getRefreshCount()).isOne();
+    assertThat(secretCache.getUnchangedRefreshCount()).isOne();
+  }
+
+  @Test
+  void expiredEntryWithNewVersionIsFetchedAgain() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    storeSecret(2, "secret2");
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    advance(Duration.ofMinutes(2));
+
+    // the read which triggers the refresh is answered with the cached value
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret2");
+    assertThat(requestedPaths).containsExactly(DATA_PATH, METADATA_PATH, DATA_PATH);
+    assertThat(secretCache.getRefreshCount()).isOne();
+    assertThat(secretCache.getUnchangedRefreshCount()).isZero();
+  }
+
+  @Test
+  void differentTokenIsNotServedCachedSecret() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    final KeyDefinition keyWithOtherToken =
+        new KeyDefinition(DATA_PATH, Optional.empty(), "token2");
+    revokedTokens.add("token2");
+
+    assertThatThrownBy(() -> connection.fetchKey(keyWithOtherToken))
+        .isInstanceOf(HashicorpException.class)
+        .hasMessage(
+            "Error communicating with Hashicorp vault: Received invalid Http status code 403.");
+    assertThat(requestedPaths).containsExactly(DATA_PATH, DATA_PATH);
+    assertThat(secretCache.getHitCount()).isZero();
+  }
+
+  @Test
+  void revokedTokenIsNotServedCachedSecretOnceRefreshIsRejected() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    revokedTokens.add("token");
+    advance(Duration.ofMinutes(2));
+
+    // the read which triggers the refresh is answered before the token is checked
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(secretCache.size()).isZero();
+    assertThatThrownBy(() -> connection.fetchKey(KEY))
+        .isInstanceOf(HashicorpException.class)
+        .hasMessage(
+            "Error communicating with Hashicorp vault: Received invalid Http status code 403.");
+  }
+
+  @Test
+  void entryWhichCannotBeRefreshedExpiresAtMaximumAge() {
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    vaultUnavailable.set(true);
+    advance(Duration.ofMinutes(2));
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+
+    // default maximum age is five times the time to live
+    advance(Duration.ofMinutes(3));
+    assertThatThrownBy(() -> connection.fetchKey(KEY))
+        .isInstanceOf(HashicorpException.class)
+        .hasMessage(
+            "Error communicating with Hashicorp vault: Received invalid Http status code 503.");
+    assertThat(secretCache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void keyNamesAreCachedSeparately() {
+    responseBodies.put(
+        DATA_PATH,
+        "{\"data\": {\"data\": {\"value\": \"secret1\", \"other\": \"secret3\"}, "
+            + "\"metadata\": {\"version\": 1}}}");
+    final KeyDefinition otherKey = new KeyDefinition(DATA_PATH, Optional.of("other"), "token");
+
+    assertThat(connection.fetchKey(KEY)).isEqualTo("secret1");
+    assertThat(connection.fetchKey(otherKey)).isEqualTo("secret3");
+
+    assertThat(secretCache.size()).isEqualTo(2);
+    assertThat(secretCache.getMissCount()).isEqualTo(2);
+  }
+
+  private void storeSecret(final long version, final String value) {
+    responseBodies.put(
+        DATA_PATH,
+        "{\"data\": {\"data\": {\"value\": \""
+            + value
+            + "\"}, \"metadata\": {\"version\": "
+            + version
+            + "}}}");
+    responseBodies.put(METADATA_PATH, "{\"data\": {\"current_version\": " + version + "}}");
+  }
+
+  private void advance(final Duration duration) {
+    nanos.addAndGet(TimeUnit.NANOSECONDS.convert(duration));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.hashicorp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.signers.hashicorp.config.TlsOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import javax.net.ssl.TrustManagerFactory;
+
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrustManagerFactoryProviderTest {
+
+  @TempDir Path tempDir;
+
+  private Path trustStorePath;
+
+  @BeforeEach
+  void setup() throws IOException {
+    TrustManagerFactoryProvider.invalidateCache();
+    trustStorePath = tempDir.resolve("cert1.pfx");
+    Files.write(trustStorePath, Resources.toByteArray(Resources.getResource("tls/cert1.pfx")));
+  }
+
+  @Test
+  void unchangedTrustStoreIsOnlyLoadedOnce() throws Exception {
+    final TrustManagerFactory first =
+        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("password"));
+    final TrustManagerFactory second =
+        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("password"));
+
+    assertThat(second).isSameAs(first);
+    assertThat(TrustManagerFactoryProvider.cachedTrustStoreCount()).isOne();
+  }
+
+  @Test
+  void rewrittenTrustStoreIsLoadedAgain() throws Exception {
+    final TrustManagerFactory first =
+        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("password"));
+
+    Files.setLastModifiedTime(
+        trustStorePath,
+        FileTime.from(Files.getLastModifiedTime(trustStorePath).toInstant().plusSeconds(60)));
+    final TrustManagerFactory second =
+        TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("password"));
+
+    assertThat(second).isNotSameAs(first);
+  }
+
+  @Test
+  void trustStoreWithIncorrectPasswordIsNotCached() throws Exception {
+    assertThatThrownBy(
+            () -> TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("invalid")))
+        .isInstanceOf(IOException.class);
+    assertThat(TrustManagerFactoryProvider.cachedTrustStoreCount()).isZero();
+
+    TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions("password"));
+    assertThat(TrustManagerFactoryProvider.cachedTrustStoreCount()).isOne();
+  }
+
+  @Test
+  void missingTrustStoreFailsWithoutCaching() {
+    final TlsOptions tlsOptions =
+        new TlsOptions(
+            Optional.of(TrustStoreType.PKCS12), tempDir.resolve("missing.pfx"), "password");
+
+    assertThatThrownBy(() -> TrustManagerFactoryProvider.getTrustManagerFactory(tlsOptions))
+        .isInstanceOf(IOException.class);
+    assertThat(TrustManagerFactoryProvider.cachedTrustStoreCount()).isZero();
+  }
+
+  private TlsOptions tlsOptions(final String password) {
+    return new TlsOptions(Optional.of(TrustStoreType.PKCS12), trustStorePath, password);
+  }
+}
@@ -12,47 +12,58 @@
  */
 package tech.pegasys.signers.secp256k1.azure;
 
-import static tech.pegasys.signers.azure.AzureKeyVault.createUsingClientSecretCredentials;
-
-import tech.pegasys.signers.azure.AzureKeyVault;
 import tech.pegasys.signers.secp256k1.EthPublicKeyUtils;
 import tech.pegasys.signers.secp256k1.api.Signature;
 import tech.pegasys.signers.secp256k1.api.Signer;
-import tech.pegasys.signers.secp256k1.common.SignerInitializationException;
 
 import java.math.BigInteger;
 import java.security.interfaces.ECPublicKey;
 import java.util.Arrays;
+import java.util.function.Supplier;
 
+import com.azure.core.exception.ClientAuthenticationException;
+import com.azure.core.exception.HttpResponseException;
 import com.azure.security.keyvault.keys.cryptography.CryptographyClient;
-import com.azure.security.keyvault.keys.cryptography.models.SignResult;
 import com.azure.security.keyvault.keys.cryptography.models.SignatureAlgorithm;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
 import org.web3j.crypto.ECDSASignature;
 import org.web3j.crypto.Hash;
 import org.web3j.crypto.Sign;
-import org.web3j.utils.Numeric;
 
 public class AzureKeyVaultSigner implements Signer {
 
   public static final String INACCESSIBLE_KEY_ERROR = "Failed to authenticate to vault.";
 
   private static final Logger LOG = LogManager.getLogger();
+  private static final X9ECParameters CURVE = Sign.CURVE_PARAMS;
 
   private final AzureConfig config;
   private final ECPublicKey publicKey;
+  private final ECPoint publicKeyPoint;
   private final SignatureAlgorithm signingAlgo;
   private final boolean needsToHash; // Apply Hash.sha3(data) before signing
+  private final Supplier<CryptographyClient> cryptoClientConnector;
+  private volatile CryptographyClient cryptoClient;
 
   AzureKeyVaultSigner(
       final AzureConfig config,
+      final CryptographyClient cryptoClient,
+      final Supplier<CryptographyClient> cryptoClientConnector,
       final Bytes publicKey,
       final boolean needsToHash,
       final boolean useDeprecatedSignatureAlgorithm) {
     this.config = config;
+    this.cryptoClient = cryptoClient;
+    this.cryptoClientConnector = cryptoClientConnector;
     this.publicKey = EthPublicKeyUtils.createPublicKey(publicKey);
+    // 0x04 prefix marks the uncompressed point encoding
+    this.publicKeyPoint =
+        CURVE.getCurve().decodePoint(Bytes.concatenate(Bytes.of(4), publicKey).toArrayUnsafe());
     this.needsToHash = needsToHash;
     this.signingAlgo =
         useDeprecatedSignatureAlgorithm
@@ -62,26 +73,8 @@ public class AzureKeyVaultSigner implements Signer {
 
   @Override
   public Signature sign(byte[] data) {
-    final AzureKeyVault vault;
-    try {
-      vault =
-          createUsingClientSecretCredentials(
-              config.getClientId(),
-              config.getClientSecret(),
-              config.getTenantId(),
-              config.getKeyVaultName());
-    } catch (final Exception e) {
-      LOG.error("Failed to connect to vault", e);
-      throw new SignerInitializationException(INACCESSIBLE_KEY_ERROR, e);
-    }
-
-    final CryptographyClient cryptoClient =
-        vault.fetchKey(config.getKeyName(), config.getKeyVersion());
-
     final byte[] dataToSign = needsToHash ? Hash.sha3(data) : data;
-    final SignResult result = cryptoClient.sign(signingAlgo, dataToSign);
-
-    final byte[] signature = result.getSignature();
+    final byte[] signature = signRemotely(dataToSign);
 
     if (signature.length != 64) {
       throw new RuntimeException(
@@ -112,20 +105,68 @@ public class AzureKeyVaultSigner implements Signer {
         BigInteger.valueOf(headerByte), canonicalSignature.r, canonicalSignature.s);
   }
 
+  private byte[] signRemotely(final byte[] dataToSign) {
+    final CryptographyClient client = cryptoClient;
+    try {
+      return client.sign(signingAlgo, dataToSign).getSignature();
+    } catch (final RuntimeException e) {
+      if (!isAuthenticationFailure(e)) {
+        throw e;
+      }
+      // The client's credential may have been revoked or rotated, so reconnect once and retry.
+      LOG.warn(
+          "Remote signing was not authorised, reconnecting to vault {}", config.getKeyVaultName());
+      return reconnect(client).sign(signingAlgo, dataToSign).getSignature();
+    }
+  }
+
+  // only the first of concurrent failures on the same client reconnects
+  private synchronized CryptographyClient reconnect(final CryptographyClient failedClient) {
+    if (cryptoClient == failedClient) {
+      cryptoClient = cryptoClientConnector.get();
+    }
+    return cryptoClient;
+  }
+
+  private static boolean isAuthenticationFailure(final RuntimeException e) {
+    if (e instanceof ClientAuthenticationException) {
+      return true;
+    }
+    if (e instanceof HttpResponseException) {
+      final HttpResponseException responseException = (HttpResponseException) e;
+      if (responseException.getResponse() != null) {
+        final int statusCode = responseException.getResponse().getStatusCode();
+        return statusCode == 401 || statusCode == 403;
+      }
+    }
+    return false;
+  }
+
   @Override
   public ECPublicKey getPublicKey() {
     return publicKey;
   }
 
+  // Verifying the signature against our public key yields the ephemeral point R, whose y parity
+  // and x overflow are the recovery id, avoiding trial recovery of up to four candidate keys.
   private int recoverKeyIndex(final ECDSASignature sig, final byte[] hash) {
-    final BigInteger publicKey = Numeric.toBigInt(EthPublicKeyUtils.toByteArray(this.publicKey));
-    for (int i = 0; i < 4; i++) {
-      final BigInteger k = Sign.recoverFromSignature(i, sig, hash);
-      LOG.trace("recovered key: {}", k);
-      if (k != null && k.equals(publicKey)) {
-        return i;
-      }
+    final BigInteger n = CURVE.getN();
+    final BigInteger e = new BigInteger(1, hash);
+    final BigInteger sInverse = sig.s.modInverse(n);
+    final BigInteger u1 = e.multiply(sInverse).mod(n);
+    final BigInteger u2 = sig.r.multiply(sInverse).mod(n);
+    final ECPoint r =
+        ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), u1, publicKeyPoint, u2).normalize();
+    if (r.isInfinity()) {
+      return -1;
+    }
+
+    final BigInteger x = r.getAffineXCoord().toBigInteger();
+    if (!x.mod(n).equals(sig.r)) {
+      return -1;
     }
-    return -1;
+    final int xOverflow = x.compareTo(n) >= 0 ? 2 : 0;
+    final int yParity = r.getAffineYCoord().testBitZero() ? 1 : 0;
+    return xOverflow + yParity;
   }
 }
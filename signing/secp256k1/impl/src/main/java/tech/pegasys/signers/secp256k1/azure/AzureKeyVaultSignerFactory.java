@@ -13,9 +13,9 @@
 package tech.pegasys.signers.secp256k1.azure;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static tech.pegasys.signers.azure.AzureKeyVault.createUsingClientSecretCredentials;
 
 import tech.pegasys.signers.azure.AzureKeyVault;
+import tech.pegasys.signers.azure.AzureKeyVaultProvider;
 import tech.pegasys.signers.secp256k1.api.Signer;
 import tech.pegasys.signers.secp256k1.common.SignerInitializationException;
 
@@ -36,24 +36,68 @@ public class AzureKeyVaultSignerFactory {
   private static final String DEPRECATED_CURVE_NAME = "SECP256K1";
   private static final Set<String> SUPPORTED_CURVE_NAMES = Set.of(DEPRECATED_CURVE_NAME, "P-256K");
   private static final Logger LOG = LogManager.getLogger();
+  private static final long DEFAULT_VAULT_CACHE_SIZE = 100;
 
   private final boolean needsToHash;
+  private final AzureKeyVaultProvider azureKeyVaultProvider;
 
   public AzureKeyVaultSignerFactory() {
     this(true);
   }
 
   public AzureKeyVaultSignerFactory(final boolean needsToHash) {
+    this(needsToHash, new AzureKeyVaultProvider(DEFAULT_VAULT_CACHE_SIZE));
+  }
+
+  /**
+   * @param needsToHash Whether data is hashed before it is sent to the vault for signing
+   * @param azureKeyVaultProvider Provider of vault connections shared by all created signers
+   */
+  public AzureKeyVaultSignerFactory(
+      final boolean needsToHash, final AzureKeyVaultProvider azureKeyVaultProvider) {
+    checkNotNull(azureKeyVaultProvider, "azureKeyVaultProvider must be specified");
     this.needsToHash = needsToHash;
+    this.azureKeyVaultProvider = azureKeyVaultProvider;
   }
 
   public Signer createSigner(final AzureConfig config) {
     checkNotNull(config, "Config must be specified");
 
+    final CryptographyClient cryptoClient = connectToKey(config);
+    final JsonWebKey jsonWebKey = cryptoClient.getKey().getKey();
+    final String curveName = jsonWebKey.getCurveName().toString();
+    if (!SUPPORTED_CURVE_NAMES.contains(curveName)) {
+      LOG.error(
+          "Unsupported curve name: {}. Expecting one of {}.", curveName, SUPPORTED_CURVE_NAMES);
+      throw new SignerInitializationException(UNSUPPORTED_CURVE_NAME);
+    }
+    final Bytes rawPublicKey =
+        Bytes.concatenate(Bytes.wrap(jsonWebKey.getX()), Bytes.wrap(jsonWebKey.getY()));
+    final boolean useDeprecatedCurveName = DEPRECATED_CURVE_NAME.equals(curveName);
+    return new AzureKeyVaultSigner(
+        config,
+        cryptoClient,
+        () -> reconnectToKey(config),
+        rawPublicKey,
+        needsToHash,
+        useDeprecatedCurveName);
+  }
+
+  private CryptographyClient reconnectToKey(final AzureConfig config) {
+    // the cached credential's token was rejected, so authenticate again rather than reuse it
+    azureKeyVaultProvider.invalidateClientSecretCredentials(
+        config.getClientId(),
+        config.getClientSecret(),
+        config.getTenantId(),
+        config.getKeyVaultName());
+    return connectToKey(config);
+  }
+
+  private CryptographyClient connectToKey(final AzureConfig config) {
     final AzureKeyVault vault;
     try {
       vault =
-          createUsingClientSecretCredentials(
+          azureKeyVaultProvider.createUsingClientSecretCredentials(
               config.getClientId(),
               config.getClientSecret(),
               config.getTenantId(),
@@ -63,23 +107,11 @@ public class AzureKeyVaultSignerFactory {
       throw new SignerInitializationException(INACCESSIBLE_KEY_ERROR, e);
     }
 
-    final CryptographyClient cryptoClient;
     try {
-      cryptoClient = vault.fetchKey(config.getKeyName(), config.getKeyVersion());
+      return vault.fetchKey(config.getKeyName(), config.getKeyVersion());
     } catch (final Exception e) {
       LOG.error("Unable to load key {}", e.getMessage());
       throw new SignerInitializationException(INVALID_KEY_PARAMETERS_ERROR, e);
     }
-    final JsonWebKey jsonWebKey = cryptoClient.getKey().getKey();
-    final String curveName = jsonWebKey.getCurveName().toString();
-    if (!SUPPORTED_CURVE_NAMES.contains(curveName)) {
-      LOG.error(
-          "Unsupported curve name: {}. Expecting one of {}.", curveName, SUPPORTED_CURVE_NAMES);
-      throw new SignerInitializationException(UNSUPPORTED_CURVE_NAME);
-    }
-    final Bytes rawPublicKey =
-        Bytes.concatenate(Bytes.wrap(jsonWebKey.getX()), Bytes.wrap(jsonWebKey.getY()));
-    final boolean useDeprecatedCurveName = DEPRECATED_CURVE_NAME.equals(curveName);
-    return new AzureKeyVaultSigner(config, rawPublicKey, needsToHash, useDeprecatedCurveName);
   }
 }
@@ -24,10 +24,22 @@ import org.web3j.crypto.Credentials;
 
 public class HashicorpSignerFactory {
 
-  public HashicorpSignerFactory() {}
+  private final HashicorpConnectionFactory connectionFactory;
+
+  public HashicorpSignerFactory() {
+    this(new HashicorpConnectionFactory());
+  }
+
+  /**
+   * @param connectionFactory Connection factory used for every key, and closed by {@link
+   *     #shutdown()}, so http clients and TLS contexts are reused across key loads.
+   */
+  public HashicorpSignerFactory(final HashicorpConnectionFactory connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
 
   public Signer create(final HashicorpKeyConfig keyConfig) {
-    try (final HashicorpConnectionFactory connectionFactory = new HashicorpConnectionFactory()) {
+    try {
       final HashicorpConnection connection =
           connectionFactory.create(keyConfig.getConnectionParams());
       final String secret = connection.fetchKey(keyConfig.getKeyDefinition());
@@ -38,5 +50,7 @@ public class HashicorpSignerFactory {
     }
   }
 
-  public void shutdown() {}
+  public void shutdown() {
+    connectionFactory.close();
+  }
 }
@@ -12,6 +12,8 @@
  */
 package tech.pegasys.signers.secp256k1.multikey;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import tech.pegasys.signers.secp256k1.EthPublicKeyUtils;
 import tech.pegasys.signers.secp256k1.api.FileSelector;
 import tech.pegasys.signers.secp256k1.api.Signer;
@@ -32,9 +34,11 @@ import tech.pegasys.signers.secp256k1.multikey.metadata.SigningMetadataFile;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.interfaces.ECPublicKey;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -42,14 +46,21 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.web3j.crypto.Credentials;
 
-public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactory {
+public class MultiKeySignerProvider
+    implements SignerProvider, MultiSignerFactory, SigningMetadataChangeListener {
 
   private static final Logger LOG = LogManager.getLogger();
 
   private final SigningMetadataTomlConfigLoader signingMetadataTomlConfigLoader;
   private final HashicorpSignerFactory hashicorpSignerFactory;
+  // shared so that signers using the same vault and identity share a single vault connection
+  private final AzureKeyVaultSignerFactory azureFactory = new AzureKeyVaultSignerFactory();
   private final FileSelector<Void> allConfigFilesSelector;
   private final FileSelector<SignerIdentifier> signerIdentifierConfigFileSelector;
+  private final Optional<SignerRegistry> signerRegistry;
+  // serializes full reloads with watcher events so a scan cannot overwrite a newer file change
+  private final Object registryUpdateLock = new Object();
+  private volatile SigningMetadataDirectoryWatcher directoryWatcher;
 
   public static MultiKeySignerProvider create(
       final Path rootDir,
@@ -67,15 +78,71 @@ public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactor
         signerIdentifierConfigFileSelector);
   }
 
+  /**
+   * Creates a provider which builds every signer in rootDir once, and then serves signers from an
+   * in-memory {@link SignerRegistry} until {@link #reload()} or {@link #invalidate} is called.
+   */
+  public static MultiKeySignerProvider createWithRegistry(
+      final Path rootDir,
+      final FileSelector<Void> allConfigFilesSelector,
+      final FileSelector<SignerIdentifier> signerIdentifierConfigFileSelector,
+      final Function<ECPublicKey, SignerIdentifier> identifierFunction) {
+    final MultiKeySignerProvider provider =
+        new MultiKeySignerProvider(
+            new SigningMetadataTomlConfigLoader(rootDir),
+            new HashicorpSignerFactory(),
+            allConfigFilesSelector,
+            signerIdentifierConfigFileSelector,
+            new SignerRegistry(identifierFunction));
+    provider.reload();
+    return provider;
+  }
+
+  /**
+   * Creates a registry backed provider which watches rootDir, so that only metadata files which
+   * are created, modified or deleted cause signers to be created or evicted. The registry is
+   * authoritative, so identifiers it does not hold are not looked up in rootDir.
+   */
+  public static MultiKeySignerProvider createWithWatchedRegistry(
+      final Path rootDir,
+      final FileSelector<Void> allConfigFilesSelector,
+      final FileSelector<SignerIdentifier> signerIdentifierConfigFileSelector,
+      final Function<ECPublicKey, SignerIdentifier> identifierFunction) {
+    final MultiKeySignerProvider provider =
+        new MultiKeySignerProvider(
+            new SigningMetadataTomlConfigLoader(rootDir),
+            new HashicorpSignerFactory(),
+            allConfigFilesSelector,
+            signerIdentifierConfigFileSelector,
+            new SignerRegistry(identifierFunction));
+    provider.watchForChanges();
+    return provider;
+  }
+
   public MultiKeySignerProvider(
       final SigningMetadataTomlConfigLoader signingMetadataTomlConfigLoader,
       final HashicorpSignerFactory hashicorpSignerFactory,
       final FileSelector<Void> allConfigFilesSelector,
       final FileSelector<SignerIdentifier> signerIdentifierConfigFileSelector) {
+    this(
+        signingMetadataTomlConfigLoader,
+        hashicorpSignerFactory,
+        allConfigFilesSelector,
+        signerIdentifierConfigFileSelector,
+        null);
+  }
+
+  public MultiKeySignerProvider(
+      final SigningMetadataTomlConfigLoader signingMetadataTomlConfigLoader,
+      final HashicorpSignerFactory hashicorpSignerFactory,
+      final FileSelector<Void> allConfigFilesSelector,
+      final FileSelector<SignerIdentifier> signerIdentifierConfigFileSelector,
+      final SignerRegistry signerRegistry) {
     this.signingMetadataTomlConfigLoader = signingMetadataTomlConfigLoader;
     this.hashicorpSignerFactory = hashicorpSignerFactory;
     this.allConfigFilesSelector = allConfigFilesSelector;
     this.signerIdentifierConfigFileSelector = signerIdentifierConfigFileSelector;
+    this.signerRegistry = Optional.ofNullable(signerRegistry);
   }
 
   @Override
@@ -84,26 +151,47 @@ public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactor
       return Optional.empty();
     }
 
+    final Optional<Signer> registeredSigner =
+        signerRegistry.flatMap(registry -> registry.get(signerIdentifier));
+    if (registeredSigner.isPresent()) {
+      return validateSigner(signerIdentifier, registeredSigner.get());
+    }
+    if (directoryWatcher != null) {
+      // a watched registry holds every signer in the directory, so a miss needs no scan
+      return Optional.empty();
+    }
+
+    final Optional<SigningMetadataFile> metadataFile =
+        signingMetadataTomlConfigLoader.loadMetadata(
+            signerIdentifierConfigFileSelector.getConfigFilesFilter(signerIdentifier));
     final Optional<Signer> signer =
-        signingMetadataTomlConfigLoader
-            .loadMetadata(signerIdentifierConfigFileSelector.getConfigFilesFilter(signerIdentifier))
-            .map(metadataFile -> metadataFile.createSigner(this));
-    if (signer.isPresent()) {
-      if (signerIdentifier.validate(signer.get().getPublicKey())) {
-        return signer;
-      } else {
-        LOG.warn(
-            "Signer loaded from file with public key ({}) does not validate with the supplied identifier ({})",
-            EthPublicKeyUtils.toHexString(signer.get().getPublicKey()),
-            signerIdentifier.toStringIdentifier());
-      }
+        metadataFile
+            .map(metadata -> metadata.createSigner(this))
+            .flatMap(loadedSigner -> validateSigner(signerIdentifier, loadedSigner));
+    if (signer.isPresent() && signerRegistry.isPresent()) {
+      signerRegistry.get().register(metadataFile.get().getFilename(), signer.get());
+    }
+    return signer;
+  }
+
+  private Optional<Signer> validateSigner(
+      final SignerIdentifier signerIdentifier, final Signer signer) {
+    if (signerIdentifier.validate(signer.getPublicKey())) {
+      return Optional.of(signer);
     }
+    LOG.warn(
+        "Signer loaded from file with public key ({}) does not validate with the supplied identifier ({})",
+        EthPublicKeyUtils.toHexString(signer.getPublicKey()),
+        signerIdentifier.toStringIdentifier());
     return Optional.empty();
   }
 
   @Override
   public Set<ECPublicKey> availablePublicKeys(
       final Function<ECPublicKey, SignerIdentifier> identifierFunction) {
+    if (signerRegistry.isPresent()) {
+      return signerRegistry.get().publicKeys();
+    }
     return signingMetadataTomlConfigLoader
         .loadAvailableSigningMetadataTomlConfigs(allConfigFilesSelector.getConfigFilesFilter(null))
         .parallelStream()
@@ -113,6 +201,126 @@ public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactor
         .collect(Collectors.toSet());
   }
 
+  /**
+   * Rebuilds the signer registry from every metadata file in the configuration directory. Has no
+   * effect if this provider was not created with a registry.
+   *
+   * <p>Metadata file events received while the directory is being scanned are applied once the
+   * reload completes, so they are not overwritten by the result of the scan.
+   */
+  public void reload() {
+    if (signerRegistry.isEmpty()) {
+      return;
+    }
+    final SignerRegistry registry = signerRegistry.get();
+    synchronized (registryUpdateLock) {
+      final Map<String, Signer> signersByFilename = new ConcurrentHashMap<>();
+      signingMetadataTomlConfigLoader
+          .loadAvailableSigningMetadataTomlConfigs(
+              allConfigFilesSelector.getConfigFilesFilter(null))
+          .parallelStream()
+          .forEach(metadataFile -> loadSigner(metadataFile, registry, signersByFilename));
+      registry.replaceAll(signersByFilename);
+    }
+    LOG.info("Loaded {} signers into the signer registry", registry.size());
+  }
+
+  private void loadSigner(
+      final SigningMetadataFile metadataFile,
+      final SignerRegistry registry,
+      final Map<String, Signer> signersByFilename) {
+    final Signer signer = createSigner(metadataFile, registry.getIdentifierFunction());
+    if (signer != null) {
+      signersByFilename.put(metadataFile.getFilename(), signer);
+    }
+  }
+
+  /**
+   * Removes the signer for the given identifier from the registry, it will be reloaded from its
+   * metadata file on next use. A watched registry reloads the signer from its metadata file
+   * immediately, as it does not look for metadata files on a miss.
+   */
+  public void invalidate(final SignerIdentifier signerIdentifier) {
+    if (signerRegistry.isEmpty()) {
+      return;
+    }
+    final SignerRegistry registry = signerRegistry.get();
+    if (directoryWatcher == null) {
+      registry.evict(signerIdentifier);
+      return;
+    }
+    final Path configsDirectory = signingMetadataTomlConfigLoader.getTomlConfigsDirectory();
+    synchronized (registryUpdateLock) {
+      registry
+          .filenames(signerIdentifier)
+          .forEach(filename -> reloadMetadataFile(registry, configsDirectory.resolve(filename)));
+    }
+  }
+
+  public void invalidateAll() {
+    signerRegistry.ifPresent(SignerRegistry::clear);
+  }
+
+  /**
+   * Starts watching the configuration directory for metadata changes, then rebuilds the registry
+   * so that no change made before the watch was established is missed.
+   */
+  public synchronized void watchForChanges() {
+    checkState(signerRegistry.isPresent(), "Watching for changes requires a signer registry");
+    if (directoryWatcher != null) {
+      return;
+    }
+    try {
+      directoryWatcher =
+          new SigningMetadataDirectoryWatcher(
+              signingMetadataTomlConfigLoader.getTomlConfigsDirectory(),
+              allConfigFilesSelector.getConfigFilesFilter(null),
+              this);
+    } catch (final IOException e) {
+      throw new SignerInitializationException("Unable to watch signing metadata directory", e);
+    }
+    directoryWatcher.start();
+    reload();
+  }
+
+  @Override
+  public void metadataFileChanged(final Path metadataFile) {
+    signerRegistry.ifPresent(registry -> reloadMetadataFile(registry, metadataFile));
+  }
+
+  private void reloadMetadataFile(final SignerRegistry registry, final Path file) {
+    final String filename = file.getFileName().toString();
+    synchronized (registryUpdateLock) {
+      final Signer signer =
+          signingMetadataTomlConfigLoader
+              .loadMetadataFile(file)
+              .map(metadataFile -> createSigner(metadataFile, registry.getIdentifierFunction()))
+              .orElse(null);
+      if (signer == null) {
+        registry.evictFile(filename);
+        return;
+      }
+      registry.register(filename, signer);
+    }
+    LOG.info("Loaded signer from {}", filename);
+  }
+
+  @Override
+  public void metadataFileRemoved(final Path metadataFile) {
+    signerRegistry.ifPresent(
+        registry -> {
+          synchronized (registryUpdateLock) {
+            registry.evictFile(metadataFile.getFileName().toString());
+          }
+        });
+  }
+
+  @Override
+  public void metadataChangesLost() {
+    LOG.warn("Signing metadata change events were lost, reloading all signers");
+    reload();
+  }
+
   private Signer createSigner(
       final SigningMetadataFile metadataFile,
       Function<ECPublicKey, SignerIdentifier> identifierFunction) {
@@ -135,7 +343,6 @@ public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactor
   public Signer createSigner(final AzureSigningMetadataFile metadataFile) {
     try {
       final AzureConfig config = metadataFile.getConfig();
-      final AzureKeyVaultSignerFactory azureFactory = new AzureKeyVaultSignerFactory();
       return azureFactory.createSigner(config);
     } catch (final SignerInitializationException e) {
       LOG.error("Failed to construct Azure signer from " + metadataFile.getFilename());
@@ -176,7 +383,15 @@ public class MultiKeySignerProvider implements SignerProvider, MultiSignerFactor
   }
 
   @Override
-  public void shutdown() {
+  public synchronized void shutdown() {
+    if (directoryWatcher != null) {
+      try {
+        directoryWatcher.close();
+      } catch (final IOException e) {
+        LOG.warn("Failed to stop watching signing metadata directory", e);
+      }
+      directoryWatcher = null;
+    }
     hashicorpSignerFactory.shutdown(); // required to clean up its Vertx instance.
   }
 }
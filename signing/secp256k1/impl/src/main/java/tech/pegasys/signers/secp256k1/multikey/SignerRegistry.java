@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.multikey;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import tech.pegasys.signers.secp256k1.api.Signer;
+import tech.pegasys.signers.secp256k1.api.SignerIdentifier;
+
+import java.security.interfaces.ECPublicKey;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * In-memory index of signers created from signing metadata files. Signers are keyed by the string
+ * identifier produced by the registry's identifier function, and by the metadata filename they
+ * were created from so that a single file can be replaced or evicted.
+ *
+ * <p>If several files resolve to the same identifier, the most recently registered signer is
+ * served, and evicting one of the files leaves the identifier served by a signer from a remaining
+ * file.
+ */
+public class SignerRegistry {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Function<ECPublicKey, SignerIdentifier> identifierFunction;
+  private final Map<String, Signer> signersByIdentifier = new ConcurrentHashMap<>();
+  private final Map<String, RegisteredSigner> signersByFilename = new ConcurrentHashMap<>();
+
+  public SignerRegistry(final Function<ECPublicKey, SignerIdentifier> identifierFunction) {
+    checkNotNull(identifierFunction, "identifierFunction must be specified");
+    this.identifierFunction = identifierFunction;
+  }
+
+  public Optional<Signer> get(final SignerIdentifier signerIdentifier) {
+    return Optional.ofNullable(signersByIdentifier.get(key(signerIdentifier)));
+  }
+
+  public Set<ECPublicKey> publicKeys() {
+    return signersByIdentifier.values().stream()
+        .map(Signer::getPublicKey)
+        .collect(Collectors.toSet());
+  }
+
+  public Function<ECPublicKey, SignerIdentifier> getIdentifierFunction() {
+    return identifierFunction;
+  }
+
+  public int size() {
+    return signersByIdentifier.size();
+  }
+
+  /** @return The metadata files which the signer for the given identifier was created from. */
+  public synchronized List<String> filenames(final SignerIdentifier signerIdentifier) {
+    return filenamesOf(key(signerIdentifier)).collect(Collectors.toList());
+  }
+
+  public synchronized void register(final String filename, final Signer signer) {
+    checkNotNull(filename, "filename must be specified");
+    checkNotNull(signer, "signer must be specified");
+    evictFile(filename);
+    final String identifier = key(identifierFunction.apply(signer.getPublicKey()));
+    filenamesOf(identifier)
+        .findAny()
+        .ifPresent(
+            otherFilename ->
+                LOG.warn(
+                    "Signing metadata files {} and {} have the same signer {}",
+                    otherFilename,
+                    filename,
+                    identifier));
+    signersByIdentifier.put(identifier, signer);
+    signersByFilename.put(filename, new RegisteredSigner(identifier, signer));
+  }
+
+  public synchronized void replaceAll(final Map<String, Signer> signersByFilename) {
+    clear();
+    signersByFilename.forEach(this::register);
+  }
+
+  public synchronized Optional<Signer> evictFile(final String filename) {
+    final RegisteredSigner registeredSigner = signersByFilename.remove(filename);
+    if (registeredSigner == null) {
+      return Optional.empty();
+    }
+    final String identifier = registeredSigner.identifier;
+    // another file with the same identifier keeps it registered
+    final Optional<Signer> remainingSigner =
+        signersByFilename.values().stream()
+            .filter(other -> other.identifier.equals(identifier))
+            .map(other -> other.signer)
+            .findAny();
+    if (remainingSigner.isPresent()) {
+      signersByIdentifier.put(identifier, remainingSigner.get());
+    } else {
+      signersByIdentifier.remove(identifier);
+    }
+    return Optional.of(registeredSigner.signer);
+  }
+
+  public synchronized Optional<Signer> evict(final SignerIdentifier signerIdentifier) {
+    final String identifier = key(signerIdentifier);
+    signersByFilename.values().removeIf(registered -> registered.identifier.equals(identifier));
+    return Optional.ofNullable(signersByIdentifier.remove(identifier));
+  }
+
+  public synchronized void clear() {
+    signersByIdentifier.clear();
+    signersByFilename.clear();
+  }
+
+  private Stream<String> filenamesOf(final String identifier) {
+    return signersByFilename.entrySet().stream()
+        .filter(entry -> entry.getValue().identifier.equals(identifier))
+        .map(Map.Entry::getKey);
+  }
+
+  private static String key(final SignerIdentifier signerIdentifier) {
+    return signerIdentifier.toStringIdentifier().toLowerCase(Locale.ROOT);
+  }
+
+  private static class RegisteredSigner {
+    private final String identifier;
+    private final Signer signer;
+
+    private RegisteredSigner(final String identifier, final Signer signer) {
+      this.identifier = identifier;
+      this.signer = signer;
+    }
+  }
+}
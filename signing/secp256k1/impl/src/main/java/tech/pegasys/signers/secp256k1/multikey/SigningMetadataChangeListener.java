@@ -0,0 +1,25 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.multikey;
+
+import java.nio.file.Path;
+
+public interface SigningMetadataChangeListener {
+
+  void metadataFileChanged(Path metadataFile);
+
+  void metadataFileRemoved(Path metadataFile);
+
+  /** Called when file system events were lost, and the directory must be rescanned in full. */
+  void metadataChangesLost();
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.multikey;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Watches the signing metadata directory and notifies a listener of each metadata file which is
+ * created, modified or deleted, so that only the affected signers need to be reloaded.
+ */
+public class SigningMetadataDirectoryWatcher implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Path directory;
+  private final DirectoryStream.Filter<Path> configFileFilter;
+  private final SigningMetadataChangeListener listener;
+  private final WatchService watchService;
+  private final Thread watchThread;
+
+  public SigningMetadataDirectoryWatcher(
+      final Path directory,
+      final DirectoryStream.Filter<Path> configFileFilter,
+      final SigningMetadataChangeListener listener)
+      throws IOException {
+    this.directory = directory;
+    this.configFileFilter = configFileFilter;
+    this.listener = listener;
+    this.watchService = directory.getFileSystem().newWatchService();
+    directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    this.watchThread = new Thread(this::processEvents, "signing-metadata-watcher");
+    watchThread.setDaemon(true);
+  }
+
+  public void start() {
+    watchThread.start();
+  }
+
+  private void processEvents() {
+    while (true) {
+      final WatchKey watchKey;
+      try {
+        watchKey = watchService.take();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (final ClosedWatchServiceException e) {
+        return;
+      }
+
+      for (final WatchEvent<?> event : watchKey.pollEvents()) {
+        try {
+          handleEvent(event);
+        } catch (final RuntimeException e) {
+          LOG.error("Failed to process change to signing metadata directory", e);
+        }
+      }
+
+      if (!watchKey.reset()) {
+        LOG.warn("Signing metadata directory {} is no longer accessible", directory);
+        return;
+      }
+    }
+  }
+
+  private void handleEvent(final WatchEvent<?> event) {
+    if (event.kind() == OVERFLOW) {
+      listener.metadataChangesLost();
+      return;
+    }
+
+    final Path metadataFile = directory.resolve((Path) event.context());
+    if (event.kind() == ENTRY_DELETE) {
+      listener.metadataFileRemoved(metadataFile);
+    } else if (isConfigFile(metadataFile)) {
+      listener.metadataFileChanged(metadataFile);
+    }
+  }
+
+  private boolean isConfigFile(final Path file) {
+    try {
+      return configFileFilter.accept(file);
+    } catch (final IOException e) {
+      LOG.warn("IO Exception raised while filtering {}", file);
+      return false;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    watchThread.interrupt();
+  }
+}
@@ -73,7 +73,7 @@ public class SigningMetadataTomlConfigLoader {
     try (final DirectoryStream<Path> directoryStream =
         Files.newDirectoryStream(tomlConfigsDirectory, configFileSelector)) {
       for (final Path file : directoryStream) {
-        getMetadataInfo(file).ifPresent(metadataConfigs::add);
+        loadMetadataFile(file).ifPresent(metadataConfigs::add);
       }
       return ImmutableList.copyOf(metadataConfigs);
     } catch (final IOException e) {
@@ -82,7 +82,11 @@ public class SigningMetadataTomlConfigLoader {
     }
   }
 
-  private Optional<SigningMetadataFile> getMetadataInfo(final Path file) {
+  public Path getTomlConfigsDirectory() {
+    return tomlConfigsDirectory;
+  }
+
+  public Optional<SigningMetadataFile> loadMetadataFile(final Path file) {
     final String filename = file.getFileName().toString();
 
     try {
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.azure;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.secp256k1.EthPublicKeyUtils;
+import tech.pegasys.signers.secp256k1.api.Signature;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.azure.core.exception.ClientAuthenticationException;
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.azure.security.keyvault.keys.cryptography.CryptographyClient;
+import com.azure.security.keyvault.keys.cryptography.models.SignResult;
+import com.azure.security.keyvault.keys.cryptography.models.SignatureAlgorithm;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.Sign.SignatureData;
+import org.web3j.utils.Numeric;
+
+class AzureKeyVaultSignerClientReuseTest {
+
+  private static final ECKeyPair KEY_PAIR =
+      ECKeyPair.create(
+          Numeric.toBigInt("8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63"));
+  private static final AzureConfig CONFIG =
+      new AzureConfig("vault", "key", "", "clientId", "clientSecret", "tenantId");
+
+  private final CryptographyClient cryptoClient = mock(CryptographyClient.class);
+
+  @Test
+  void cryptographyClientIsReusedAcrossSignatures() throws SignatureException {
+    final byte[] data = "Hello World".getBytes(UTF_8);
+    final byte[] hash = Hash.sha3(data);
+    when(cryptoClient.sign(eq(SignatureAlgorithm.ES256K), any()))
+        .thenReturn(new SignResult(remoteSignature(hash), SignatureAlgorithm.ES256K, "keyId"));
+    final AzureKeyVaultSigner signer =
+        new AzureKeyVaultSigner(CONFIG, cryptoClient, () -> cryptoClient, publicKey(), true, false);
+
+    final Signature first = signer.sign(data);
+    final Signature second = signer.sign(data);
+
+    verify(cryptoClient, times(2)).sign(eq(SignatureAlgorithm.ES256K), eq(hash));
+    assertThat(recoverPublicKey(hash, first)).isEqualTo(KEY_PAIR.getPublicKey());
+    assertThat(recoverPublicKey(hash, second)).isEqualTo(KEY_PAIR.getPublicKey());
+  }
+
+  @Test
+  void recoveryIdIsCorrectForBothParitiesOfR() throws SignatureException {
+    final AzureKeyVaultSigner signer =
+        new AzureKeyVaultSigner(
+            CONFIG, cryptoClient, () -> cryptoClient, publicKey(), false, false);
+    final Set<BigInteger> recoveryIds = new HashSet<>();
+
+    for (int i = 0; i < 32; i++) {
+      final byte[] hash = Hash.sha3(("message " + i).getBytes(UTF_8));
+      when(cryptoClient.sign(SignatureAlgorithm.ES256K, hash))
+          .thenReturn(new SignResult(remoteSignature(hash), SignatureAlgorithm.ES256K, "keyId"));
+
+      final Signature signature = signer.sign(hash);
+
+      assertThat(recoverPublicKey(hash, signature)).isEqualTo(KEY_PAIR.getPublicKey());
+      recoveryIds.add(signature.getV());
+    }
+    assertThat(recoveryIds)
+        .containsExactlyInAnyOrder(BigInteger.valueOf(27), BigInteger.valueOf(28));
+  }
+
+  @Test
+  void authenticationFailureReconnectsAndRetries() throws SignatureException {
+    final byte[] hash = Hash.sha3("Hello World".getBytes(UTF_8));
+    final CryptographyClient reconnectedClient = mock(CryptographyClient.class);
+    when(cryptoClient.sign(SignatureAlgorithm.ES256K, hash))
+        .thenThrow(new ClientAuthenticationException("token expired", httpResponse(401)));
+    when(reconnectedClient.sign(SignatureAlgorithm.ES256K, hash))
+        .thenReturn(new SignResult(remoteSignature(hash), SignatureAlgorithm.ES256K, "keyId"));
+    final AtomicInteger reconnectCount = new AtomicInteger();
+    final AzureKeyVaultSigner signer =
+        new AzureKeyVaultSigner(
+            CONFIG,
+            cryptoClient,
+            () -> {
+              reconnectCount.incrementAndGet();
+              return reconnectedClient;
+            },
+            publicKey(),
+            false,
+            false);
+
+    assertThat(recoverPublicKey(hash, signer.sign(hash))).isEqualTo(KEY_PAIR.getPublicKey());
+    assertThat(recoverPublicKey(hash, signer.sign(hash))).isEqualTo(KEY_PAIR.getPublicKey());
+    assertThat(reconnectCount).hasValue(1);
+    verify(cryptoClient, times(1)).sign(SignatureAlgorithm.ES256K, hash);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {400, 429, 500})
+  void otherFailuresAreNotRetried(final int statusCode) {
+    final byte[] hash = Hash.sha3("Hello World".getBytes(UTF_8));
+    final HttpResponseException failure =
+        new HttpResponseException("request failed", httpResponse(statusCode));
+    when(cryptoClient.sign(SignatureAlgorithm.ES256K, hash)).thenThrow(failure);
+    final AzureKeyVaultSigner signer =
+        new AzureKeyVaultSigner(
+            CONFIG,
+            cryptoClient,
+            () -> {
+              throw new IllegalStateException("unexpected reconnect");
+            },
+            publicKey(),
+            false,
+            false);
+
+    assertThatThrownBy(() -> signer.sign(hash)).isSameAs(failure);
+    verify(cryptoClient, times(1)).sign(SignatureAlgorithm.ES256K, hash);
+  }
+
+  private static HttpResponse httpResponse(final int statusCode) {
+    final HttpResponse response = mock(HttpResponse.class);
+    when(response.getStatusCode()).thenReturn(statusCode);
+    return response;
+  }
+
+  private static byte[] remoteSignature(final byte[] hash) {
+    final SignatureData signature = Sign.signMessage(hash, KEY_PAIR, false);
+    return Bytes.concatenate(Bytes.wrap(signature.getR()), Bytes.wrap(signature.getS()))
+        .toArrayUnsafe();
+  }
+
+  private static Bytes publicKey() {
+    return Bytes.wrap(
+        EthPublicKeyUtils.toByteArray(EthPublicKeyUtils.createPublicKey(KEY_PAIR.getPublicKey())));
+  }
+
+  private static BigInteger recoverPublicKey(final byte[] hash, final Signature signature)
+      throws SignatureException {
+    final SignatureData signatureData =
+        new SignatureData(
+            signature.getV().toByteArray(),
+            Numeric.toBytesPadded(signature.getR(), 32),
+            Numeric.toBytesPadded(signature.getS(), 32));
+    return Sign.signedMessageHashToKey(hash, signatureData);
+  }
+}
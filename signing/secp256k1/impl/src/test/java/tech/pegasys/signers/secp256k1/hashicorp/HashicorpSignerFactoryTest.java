@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.hashicorp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.signers.hashicorp.HashicorpConnection;
+import tech.pegasys.signers.hashicorp.HashicorpConnectionFactory;
+import tech.pegasys.signers.hashicorp.HashicorpException;
+import tech.pegasys.signers.hashicorp.config.ConnectionParameters;
+import tech.pegasys.signers.hashicorp.config.HashicorpKeyConfig;
+import tech.pegasys.signers.hashicorp.config.KeyDefinition;
+import tech.pegasys.signers.secp256k1.api.Signer;
+import tech.pegasys.signers.secp256k1.common.SignerInitializationException;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class HashicorpSignerFactoryTest {
+  private static final String PRIVATE_KEY =
+      "8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63";
+
+  private final HashicorpConnectionFactory connectionFactory =
+      mock(HashicorpConnectionFactory.class);
+  private final HashicorpConnection connection = mock(HashicorpConnection.class);
+  private final HashicorpSignerFactory signerFactory =
+      new HashicorpSignerFactory(connectionFactory);
+
+  @Test
+  void connectionFactoryIsSharedAcrossKeysAndClosedOnShutdown() {
+    when(connectionFactory.create(any(ConnectionParameters.class))).thenReturn(connection);
+    when(connection.fetchKey(any(KeyDefinition.class))).thenReturn(PRIVATE_KEY);
+
+    final Signer first = signerFactory.create(keyConfig("/v1/secret/data/key1"));
+    final Signer second = signerFactory.create(keyConfig("/v1/secret/data/key2"));
+
+    assertThat(first.getPublicKey()).isEqualTo(second.getPublicKey());
+    verify(connectionFactory, times(2)).create(any(ConnectionParameters.class));
+    verify(connectionFactory, never()).close();
+
+    signerFactory.shutdown();
+    verify(connectionFactory).close();
+  }
+
+  @Test
+  void failureToFetchKeyThrowsSignerInitializationException() {
+    when(connectionFactory.create(any(ConnectionParameters.class))).thenReturn(connection);
+    when(connection.fetchKey(any(KeyDefinition.class)))
+        .thenThrow(new HashicorpException("Error communicating with Hashicorp vault"));
+
+    assertThatThrownBy(() -> signerFactory.create(keyConfig("/v1/secret/data/key1")))
+        .isInstanceOf(SignerInitializationException.class)
+        .hasMessage("Failed to extract secret from Hashicorp vault.");
+    verify(connectionFactory, never()).close();
+  }
+
+  private static HashicorpKeyConfig keyConfig(final String keyPath) {
+    return new HashicorpKeyConfig(
+        new ConnectionParameters("localhost", Optional.empty(), Optional.empty(), Optional.empty()),
+        new KeyDefinition(keyPath, Optional.empty(), "token"));
+  }
+}
@@ -12,10 +12,14 @@
  */
 package tech.pegasys.signers.secp256k1.multikey;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static tech.pegasys.signers.secp256k1.multikey.MetadataFileFixture.CONFIG_FILE_EXTENSION;
@@ -29,6 +33,7 @@ import tech.pegasys.signers.secp256k1.api.Signer;
 import tech.pegasys.signers.secp256k1.api.SignerIdentifier;
 import tech.pegasys.signers.secp256k1.common.PublicKeySignerIdentifier;
 import tech.pegasys.signers.secp256k1.filebased.FileSignerConfig;
+import tech.pegasys.signers.secp256k1.hashicorp.HashicorpSignerFactory;
 import tech.pegasys.signers.secp256k1.multikey.metadata.FileBasedSigningMetadataFile;
 import tech.pegasys.signers.secp256k1.multikey.metadata.SigningMetadataFile;
 
@@ -36,6 +41,7 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Resources;
@@ -161,4 +167,116 @@ class MultiKeySignerProviderTest {
 
     assertThat(signer).isEmpty();
   }
+
+  @Test
+  void registryServesSignersWithoutLoadingMetadata() {
+    when(loader.loadAvailableSigningMetadataTomlConfigs(any()))
+        .thenReturn(ImmutableList.of(metadataFile));
+    when(publicKeyFileSelector.getConfigFilesFilter(any())).thenReturn(entry -> true);
+    final MultiKeySignerProvider registryProvider = createRegistryProvider();
+    registryProvider.reload();
+
+    final PublicKeySignerIdentifier signerIdentifier =
+        new PublicKeySignerIdentifier(
+            EthPublicKeyUtils.createPublicKey(Bytes.fromHexString(LOWER_CASE_PUBLIC_KEY)));
+    final Optional<Signer> signer = registryProvider.getSigner(signerIdentifier);
+
+    assertThat(signer).isNotEmpty();
+    assertThat(registryProvider.getSigner(signerIdentifier)).containsSame(signer.get());
+    assertThat(
+            registryProvider.availablePublicKeys(PublicKeySignerIdentifier::new).stream()
+                .map(EthPublicKeyUtils::toHexString))
+        .containsExactly("0x" + LOWER_CASE_PUBLIC_KEY);
+    verify(loader, never()).loadMetadata(any());
+  }
+
+  @Test
+  void invalidatedSignerIsReloadedFromMetadataOnce() {
+    when(loader.loadAvailableSigningMetadataTomlConfigs(any()))
+        .thenReturn(ImmutableList.of(metadataFile));
+    when(loader.loadMetadata(any())).thenReturn(Optional.of(metadataFile));
+    when(publicKeyFileSelector.getConfigFilesFilter(any())).thenReturn(entry -> true);
+    final MultiKeySignerProvider registryProvider = createRegistryProvider();
+    registryProvider.reload();
+
+    final PublicKeySignerIdentifier signerIdentifier =
+        new PublicKeySignerIdentifier(
+            EthPublicKeyUtils.createPublicKey(Bytes.fromHexString(LOWER_CASE_PUBLIC_KEY)));
+    registryProvider.invalidate(signerIdentifier);
+
+    assertThat(registryProvider.getSigner(signerIdentifier)).isNotEmpty();
+    assertThat(registryProvider.getSigner(signerIdentifier)).isNotEmpty();
+    verify(loader, times(1)).loadMetadata(any());
+  }
+
+  @Test
+  void metadataFileRemovedDuringReloadIsNotRestoredByReload() throws Exception {
+    final CountDownLatch scanStarted = new CountDownLatch(1);
+    final CountDownLatch removalPending = new CountDownLatch(1);
+    when(loader.loadAvailableSigningMetadataTomlConfigs(any()))
+        .thenAnswer(
+            invocation -> {
+              scanStarted.countDown();
+              removalPending.await(30, SECONDS);
+              return ImmutableList.of(metadataFile);
+            });
+    when(publicKeyFileSelector.getConfigFilesFilter(any())).thenReturn(entry -> true);
+    final MultiKeySignerProvider registryProvider = createRegistryProvider();
+
+    final Thread reload = new Thread(registryProvider::reload);
+    reload.start();
+    assertThat(scanStarted.await(30, SECONDS)).isTrue();
+    final Thread removal =
+        new Thread(
+            () ->
+                registryProvider.metadataFileRemoved(
+                    configsDirectory.resolve(metadataFile.getFilename())));
+    removal.start();
+    await().atMost(30, SECONDS).until(() -> removal.getState() == Thread.State.BLOCKED);
+    removalPending.countDown();
+    reload.join();
+    removal.join();
+
+    assertThat(registryProvider.availablePublicKeys(PublicKeySignerIdentifier::new)).isEmpty();
+  }
+
+  @Test
+  void watchedRegistryDoesNotLoadMetadataForUnknownSigner() {
+    when(loader.getTomlConfigsDirectory()).thenReturn(configsDirectory);
+    when(loader.loadAvailableSigningMetadataTomlConfigs(any()))
+        .thenReturn(ImmutableList.of(metadataFile));
+    when(tomlFileSelector.getConfigFilesFilter(any())).thenReturn(entry -> true);
+    when(publicKeyFileSelector.getConfigFilesFilter(any())).thenReturn(entry -> true);
+    final MultiKeySignerProvider watchedProvider =
+        new MultiKeySignerProvider(
+            loader,
+            mock(HashicorpSignerFactory.class),
+            tomlFileSelector,
+            publicKeyFileSelector,
+            new SignerRegistry(PublicKeySignerIdentifier::new));
+    watchedProvider.watchForChanges();
+
+    try {
+      final PublicKeySignerIdentifier unknownIdentifier =
+          new PublicKeySignerIdentifier(
+              EthPublicKeyUtils.createPublicKey(Bytes.fromHexString("A".repeat(128))));
+      assertThat(watchedProvider.getSigner(unknownIdentifier)).isEmpty();
+      final PublicKeySignerIdentifier knownIdentifier =
+          new PublicKeySignerIdentifier(
+              EthPublicKeyUtils.createPublicKey(Bytes.fromHexString(LOWER_CASE_PUBLIC_KEY)));
+      assertThat(watchedProvider.getSigner(knownIdentifier)).isNotEmpty();
+      verify(loader, never()).loadMetadata(any());
+    } finally {
+      watchedProvider.shutdown();
+    }
+  }
+
+  private MultiKeySignerProvider createRegistryProvider() {
+    return new MultiKeySignerProvider(
+        loader,
+        null,
+        tomlFileSelector,
+        publicKeyFileSelector,
+        new SignerRegistry(PublicKeySignerIdentifier::new));
+  }
 }
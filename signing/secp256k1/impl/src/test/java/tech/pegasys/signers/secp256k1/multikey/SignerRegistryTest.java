@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.multikey;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.signers.secp256k1.api.Signer;
+import tech.pegasys.signers.secp256k1.api.SignerIdentifier;
+import tech.pegasys.signers.secp256k1.common.PublicKeySignerIdentifier;
+import tech.pegasys.signers.secp256k1.filebased.CredentialSigner;
+
+import java.security.interfaces.ECPublicKey;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+
+class SignerRegistryTest {
+
+  private static final Signer SIGNER_1 =
+      new CredentialSigner(
+          Credentials.create("8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63"));
+  private static final Signer SIGNER_2 =
+      new CredentialSigner(
+          Credentials.create("c87509a1c067bbde78beb793e6fa76530b6382a4c0241e5e4a9ec0a0f44dc0d3"));
+
+  private final SignerRegistry registry = new SignerRegistry(PublicKeySignerIdentifier::new);
+
+  @Test
+  void registeredSignerCanBeRetrievedByIdentifier() {
+    registry.register("one.toml", SIGNER_1);
+
+    assertThat(registry.get(identifierOf(SIGNER_1))).contains(SIGNER_1);
+    assertThat(registry.get(identifierOf(SIGNER_2))).isEmpty();
+    assertThat(registry.publicKeys()).containsExactly(SIGNER_1.getPublicKey());
+  }
+
+  @Test
+  void registeringSameFilenameReplacesPreviousSigner() {
+    registry.register("one.toml", SIGNER_1);
+    registry.register("one.toml", SIGNER_2);
+
+    assertThat(registry.size()).isOne();
+    assertThat(registry.get(identifierOf(SIGNER_1))).isEmpty();
+    assertThat(registry.get(identifierOf(SIGNER_2))).contains(SIGNER_2);
+  }
+
+  @Test
+  void evictingFileRemovesOnlyItsSigner() {
+    registry.register("one.toml", SIGNER_1);
+    registry.register("two.toml", SIGNER_2);
+
+    assertThat(registry.evictFile("one.toml")).contains(SIGNER_1);
+    assertThat(registry.evictFile("one.toml")).isEmpty();
+    assertThat(registry.get(identifierOf(SIGNER_1))).isEmpty();
+    assertThat(registry.get(identifierOf(SIGNER_2))).contains(SIGNER_2);
+  }
+
+  @Test
+  void evictingOneOfTwoFilesWithSameSignerKeepsSignerRegistered() {
+    registry.register("one.toml", SIGNER_1);
+    registry.register("copy-of-one.toml", SIGNER_1);
+
+    assertThat(registry.evictFile("one.toml")).contains(SIGNER_1);
+    assertThat(registry.get(identifierOf(SIGNER_1))).contains(SIGNER_1);
+
+    registry.register("copy-of-one.toml", SIGNER_2);
+    assertThat(registry.get(identifierOf(SIGNER_1))).isEmpty();
+    assertThat(registry.get(identifierOf(SIGNER_2))).contains(SIGNER_2);
+  }
+
+  @Test
+  void reloadingOneOfTwoFilesWithSameSignerKeepsOtherFilesSigner() {
+    registry.register("one.toml", SIGNER_1);
+    registry.register("copy-of-one.toml", SIGNER_1);
+
+    registry.register("one.toml", SIGNER_2);
+
+    assertThat(registry.get(identifierOf(SIGNER_1))).contains(SIGNER_1);
+    assertThat(registry.get(identifierOf(SIGNER_2))).contains(SIGNER_2);
+    assertThat(registry.size()).isEqualTo(2);
+  }
+
+  @Test
+  void evictingIdentifierRemovesSigner() {
+    registry.register("one.toml", SIGNER_1);
+
+    assertThat(registry.evict(identifierOf(SIGNER_1))).contains(SIGNER_1);
+    assertThat(registry.size()).isZero();
+    assertThat(registry.evictFile("one.toml")).isEmpty();
+  }
+
+  @Test
+  void replaceAllDiscardsPreviousSigners() {
+    registry.register("one.toml", SIGNER_1);
+
+    registry.replaceAll(Map.of("two.toml", SIGNER_2));
+
+    assertThat(registry.get(identifierOf(SIGNER_1))).isEmpty();
+    assertThat(registry.get(identifierOf(SIGNER_2))).contains(SIGNER_2);
+  }
+
+  @Test
+  void lookupIgnoresIdentifierCase() {
+    registry.register("one.toml", SIGNER_1);
+    final String identifier = identifierOf(SIGNER_1).toStringIdentifier().toUpperCase(Locale.ROOT);
+    final SignerIdentifier upperCaseIdentifier =
+        new SignerIdentifier() {
+          @Override
+          public String toStringIdentifier() {
+            return identifier;
+          }
+
+          @Override
+          public boolean validate(final ECPublicKey publicKey) {
+            return true;
+          }
+        };
+
+    assertThat(registry.get(upperCaseIdentifier)).contains(SIGNER_1);
+  }
+
+  private static SignerIdentifier identifierOf(final Signer signer) {
+    return new PublicKeySignerIdentifier(signer.getPublicKey());
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.signers.secp256k1.multikey;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import tech.pegasys.signers.secp256k1.EthPublicKeyUtils;
+import tech.pegasys.signers.secp256k1.api.FileSelector;
+import tech.pegasys.signers.secp256k1.api.SignerIdentifier;
+import tech.pegasys.signers.secp256k1.common.PublicKeySignerIdentifier;
+import tech.pegasys.signers.secp256k1.filebased.CredentialSigner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.crypto.Credentials;
+
+class WatchedSignerRegistryTest {
+
+  private static final String PRIVATE_KEY_1 =
+      "8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63";
+  private static final String PRIVATE_KEY_2 =
+      "c87509a1c067bbde78beb793e6fa76530b6382a4c0241e5e4a9ec0a0f44dc0d3";
+
+  private static final FileSelector<Void> ALL_TOML_FILES =
+      criteria -> entry -> entry.getFileName().toString().endsWith(".toml");
+  private static final FileSelector<SignerIdentifier> ANY_TOML_FILE =
+      criteria -> entry -> entry.getFileName().toString().endsWith(".toml");
+
+  @TempDir Path configsDirectory;
+
+  private MultiKeySignerProvider signerProvider;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    writeRawSigner("first.toml", PRIVATE_KEY_1);
+    signerProvider =
+        MultiKeySignerProvider.createWithWatchedRegistry(
+            configsDirectory, ALL_TOML_FILES, ANY_TOML_FILE, PublicKeySignerIdentifier::new);
+  }
+
+  @AfterEach
+  void afterEach() {
+    signerProvider.shutdown();
+  }
+
+  @Test
+  void existingSignersAreLoadedWhenWatchStarts() {
+    assertThat(signerProvider.getSigner(identifierFor(PRIVATE_KEY_1))).isNotEmpty();
+  }
+
+  @Test
+  void createdMetadataFileIsLoadedIntoRegistry() throws IOException {
+    writeRawSigner("second.toml", PRIVATE_KEY_2);
+
+    await().atMost(30, SECONDS).until(() -> availablePublicKeys().size() == 2);
+  }
+
+  @Test
+  void deletedMetadataFileIsEvictedFromRegistry() throws IOException {
+    Files.delete(configsDirectory.resolve("first.toml"));
+
+    await().atMost(30, SECONDS).until(() -> availablePublicKeys().isEmpty());
+  }
+
+  @Test
+  void modifiedMetadataFileReplacesSigner() throws IOException {
+    writeRawSigner("first.toml", PRIVATE_KEY_2);
+
+    await()
+        .atMost(30, SECONDS)
+        .until(() -> availablePublicKeys().contains(publicKeyFor(PRIVATE_KEY_2)));
+    assertThat(availablePublicKeys()).hasSize(1);
+  }
+
+  private void writeRawSigner(final String filename, final String privateKey) throws IOException {
+    Files.writeString(
+        configsDirectory.resolve(filename),
+        "[signing]\ntype = \"raw-signer\"\npriv-key = \"" + privateKey + "\"\n");
+  }
+
+  private Set<String> availablePublicKeys() {
+    return signerProvider.availablePublicKeys(PublicKeySignerIdentifier::new).stream()
+        .map(EthPublicKeyUtils::toHexString)
+        .collect(Collectors.toSet());
+  }
+
+  private static String publicKeyFor(final String privateKey) {
+    return EthPublicKeyUtils.toHexString(
+        new CredentialSigner(Credentials.create(privateKey)).getPublicKey());
+  }
+
+  private static PublicKeySignerIdentifier identifierFor(final String privateKey) {
+    return new PublicKeySignerIdentifier(
+        new CredentialSigner(Credentials.create(privateKey)).getPublicKey());
+  }
+}